@@ -0,0 +1,47 @@
+/*
+    Shared fixture for the benchmarks: the .txt files of the bundled corpus
+    and a positional index built from them once per JVM. The corpus
+    directory defaults to ./corpus and can be changed with -Dcorpus.dir=...
+*/
+
+package positionalindex;
+
+import java.io.File;
+import java.io.IOException;
+
+public class BenchmarkCorpus {
+
+    private static String[] files;
+    private static MemoryIndex index;
+
+    // the corpus files in sorted order, listed like the index command lists them
+    public static synchronized String[] files() {
+        if (files == null) {
+            String dir = System.getProperty("corpus.dir", "corpus");
+            String[] names = Problem2.sortedFileNames(dir);
+            if (names.length == 0) {
+                throw new IllegalStateException("No .txt files found in " + new File(dir).getAbsolutePath() + ", set -Dcorpus.dir");
+            }
+            files = names;
+        }
+        return files;
+    }
+
+    // indexes every corpus file with a fresh builder
+    public static MemoryIndex build() throws IOException {
+        String[] names = files();
+        IndexBuilder builder = new IndexBuilder();
+        for (int i = 0; i < names.length; i++) {
+            builder.addFile(names[i], i + 1);
+        }
+        return builder.finish(names);
+    }
+
+    // the index of the whole corpus, built on first use
+    public static synchronized MemoryIndex index() throws IOException {
+        if (index == null) {
+            index = build();
+        }
+        return index;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+    Time to tokenize, and to tokenize and index, the whole bundled corpus.
+*/
+
+package positionalindex;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexingBenchmark {
+
+    private String[] files;
+    private Tokenizer tokenizer;
+
+    // number of tokens seen, keeps the tokenizer loop from being optimized away
+    private long tokens;
+
+    @Setup
+    public void setup() {
+        files = BenchmarkCorpus.files();
+        tokenizer = new Tokenizer();
+    }
+
+    @Benchmark
+    public long tokenize() throws IOException {
+        tokens = 0;
+        for (String file : files) {
+            tokenizer.tokenize(new File(file), (word, length, position) -> tokens++);
+        }
+        return tokens;
+    }
+
+    @Benchmark
+    public MemoryIndex index() throws IOException {
+        return BenchmarkCorpus.build();
+    }
+}
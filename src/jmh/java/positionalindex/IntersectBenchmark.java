@@ -0,0 +1,118 @@
+/*
+    intersectWithSkips over real posting pairs of the bundled corpus. For
+    every pair the file where the rarer word has the most positions is
+    used, so the lists are as long as the corpus allows:
+
+    rare-rare      united / states
+    rare-common    whale / the
+    common-common  the / and
+
+    intersectWithSkips takes the kernel chosen at runtime; the scalar and
+    vector benchmarks call the proximity kernels of ProximityIntersector
+    and VectorIntersector directly, and sortedScalar and sortedVector the
+    sorted array kernels of QueryEngine and VectorIntersector on the same
+    arrays. The forks run with the Vector API module.
+*/
+
+package positionalindex;
+
+import java.io.IOException;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class IntersectBenchmark {
+
+    @Param({ "rare-rare", "rare-common", "common-common" })
+    public String pair;
+
+    @Param({ "1", "5" })
+    public int window;
+
+    private int[] word1, word2;
+    private final IntList answer = new IntList();
+
+    @Setup
+    public void setup() throws IOException {
+        String[] terms;
+        if (pair.equals("rare-rare")) {
+            terms = new String[] { "united", "states" };
+        }
+        else if (pair.equals("rare-common")) {
+            terms = new String[] { "whale", "the" };
+        }
+        else {
+            terms = new String[] { "the", "and" };
+        }
+        MemoryIndex index = BenchmarkCorpus.index();
+        TermPostings first = index.postings(terms[0]);
+        TermPostings second = index.postings(terms[1]);
+
+        // the file where the rarer word has the most positions
+        int best = -1, bestCount = -1;
+        for (int i = 0; i < first.size(); i++) {
+            PositionList other = second.find(first.file(i));
+            if (other != null) {
+                int count = Math.min(first.positions(i).size(), other.size());
+                if (count > bestCount) {
+                    bestCount = count;
+                    best = first.file(i);
+                }
+            }
+        }
+        word1 = first.find(best).toArray();
+        word2 = second.find(best).toArray();
+    }
+
+    @Benchmark
+    public IntList intersectWithSkips() {
+        answer.clear();
+        Problem2.intersectWithSkips(word1, word1.length, word2, word2.length, window, answer);
+        return answer;
+    }
+
+    @Benchmark
+    public IntList scalar() {
+        answer.clear();
+        ProximityIntersector.intersectScalar(word1, word1.length, word2, word2.length, window, answer);
+        return answer;
+    }
+
+    @Benchmark
+    public IntList vector() {
+        answer.clear();
+        VectorIntersector.intersect(word1, word1.length, word2, word2.length, window, answer);
+        return answer;
+    }
+
+    @Benchmark
+    public IntList sortedScalar() {
+        answer.clear();
+        QueryEngine.intersectSortedScalar(word1, word1.length, word2, word2.length, answer);
+        return answer;
+    }
+
+    @Benchmark
+    public IntList sortedVector() {
+        answer.clear();
+        VectorIntersector.intersectSorted(word1, word1.length, word2, word2.length, answer);
+        return answer;
+    }
+}
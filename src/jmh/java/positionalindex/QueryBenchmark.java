@@ -0,0 +1,67 @@
+/*
+    End-to-end latency of a proximity query, from the parsed chain to the
+    list of matches, on the in-memory index and on the memory-mapped index
+    written to a temporary directory.
+*/
+
+package positionalindex;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Param({ "united 1 states", "the 2 whale 3 was", "to 0 be 0 or 1 not" })
+    public String query;
+
+    @Param({ "memory", "mapped" })
+    public String source;
+
+    private QueryEngine engine;
+    private ProximityQuery parsed;
+
+    @Setup
+    public void setup() throws IOException {
+        MemoryIndex index = BenchmarkCorpus.index();
+        if (source.equals("mapped")) {
+            File dir = Files.createTempDirectory("positional-index").toFile();
+            dir.deleteOnExit();
+            DiskIndexWriter.write(index, dir);
+            for (File file : dir.listFiles()) {
+                file.deleteOnExit();
+            }
+            engine = new QueryEngine(MappedIndex.open(dir));
+        }
+        else {
+            engine = new QueryEngine(index);
+        }
+        parsed = ProximityQuery.parse(query);
+    }
+
+    @Benchmark
+    public List<QueryEngine.Match> query() {
+        return engine.execute(parsed);
+    }
+}
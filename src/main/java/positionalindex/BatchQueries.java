@@ -0,0 +1,239 @@
+/*
+    Answers a file of proximity queries, one chain per line, and writes
+    every match to an output file. All queries are parsed first and
+    grouped: queries that share a term, directly or through other queries,
+    form one group, so the position lists a group decodes are mostly the
+    ones its own queries need again. Groups larger than their share of the
+    batch are cut into chunks so every worker thread has work.
+
+    The groups run in parallel on a fixed pool. The decoded positions of a
+    term in a file are kept in an LruCache shared by the whole batch, so
+    with a large enough budget every (term, file) pair is decoded once no
+    matter how many queries use it; the file lists of the terms are shared
+    the same way. The answer of every query is rendered by its worker and
+    written through one buffered writer in query order as soon as all
+    earlier queries are done.
+
+    Output, per query:
+
+        query number, tab, query, tab, number of matching files
+        file number, tab, file name, tab, positions where the chain starts
+        ...
+
+    A line that is not a valid query, or a query whose evaluation failed,
+    gets one line with its error message. An Error in a worker fails the
+    whole batch with an IOException instead of leaving the writer waiting
+    for the queries that worker never answered.
+*/
+
+package positionalindex;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class BatchQueries {
+
+    // number of queries, groups and decoded position lists of a finished batch
+    public static class Result {
+        public int queries;
+        public int groups;
+        public long decoded;
+        public long reused;
+    }
+
+    private final PositionalIndex index;
+
+    // decoded positions by term and file number, shared by all workers
+    private final LruCache<String, IntList> positions;
+
+    // file lists by term, shared by all workers
+    private final ConcurrentHashMap<String, int[]> files = new ConcurrentHashMap<>();
+
+    public BatchQueries(PositionalIndex index, long cacheBytes) {
+        this.index = index;
+        this.positions = new LruCache<>(cacheBytes, list -> 16 + 4L * list.array().length + 96);
+    }
+
+    // answers the queries of queryFile with the given number of threads and writes the matches to outFile
+    public Result run(File queryFile, File outFile, int threads) throws IOException {
+        // parse every query up front, invalid lines keep their error
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(queryFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    lines.add(line);
+                }
+            }
+        }
+        int n = lines.size();
+        ProximityQuery[] queries = new ProximityQuery[n];
+        List<CompletableFuture<String>> answers = new ArrayList<>(n);
+        for (int q = 0; q < n; q++) {
+            answers.add(new CompletableFuture<>());
+            try {
+                queries[q] = ProximityQuery.parse(lines.get(q));
+            }
+            catch (IllegalArgumentException ex) {
+                answers.get(q).complete((q + 1) + "\t" + lines.get(q).trim() + "\terror: " + ex.getMessage() + "\n");
+            }
+        }
+
+        List<List<Integer>> groups = group(queries, Math.max(1, n / (threads * 4)));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (final List<Integer> group : groups) {
+                pool.execute(() -> answer(group, queries, answers));
+            }
+
+            // write the answers in query order while later groups are still running
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outFile), StandardCharsets.UTF_8), 1 << 16)) {
+                for (CompletableFuture<String> answer : answers) {
+                    try {
+                        out.write(answer.join());
+                    }
+                    catch (CompletionException ex) {
+                        throw new IOException("Batch query failed: " + ex.getCause(), ex.getCause());
+                    }
+                }
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+
+        Result result = new Result();
+        result.queries = n;
+        result.groups = groups.size();
+        result.decoded = positions.misses();
+        result.reused = positions.hits();
+        return result;
+    }
+
+    // connected components of queries sharing terms, in order of their first query,
+    // cut into chunks of at most chunkSize queries
+    static List<List<Integer>> group(ProximityQuery[] queries, int chunkSize) {
+        int n = queries.length;
+        int[] parent = new int[n];
+        Map<String, Integer> firstUse = new HashMap<>();
+        for (int q = 0; q < n; q++) {
+            parent[q] = q;
+            if (queries[q] == null) {
+                continue;
+            }
+            for (int i = 0; i < queries[q].size(); i++) {
+                Integer other = firstUse.putIfAbsent(queries[q].term(i), q);
+                if (other != null) {
+                    parent[root(parent, q)] = root(parent, other);
+                }
+            }
+        }
+        Map<Integer, List<Integer>> components = new LinkedHashMap<>();
+        for (int q = 0; q < n; q++) {
+            if (queries[q] != null) {
+                components.computeIfAbsent(root(parent, q), r -> new ArrayList<>()).add(q);
+            }
+        }
+        List<List<Integer>> groups = new ArrayList<>();
+        for (List<Integer> component : components.values()) {
+            for (int from = 0; from < component.size(); from += chunkSize) {
+                groups.add(component.subList(from, Math.min(from + chunkSize, component.size())));
+            }
+        }
+        groups.sort((a, b) -> Integer.compare(a.get(0), b.get(0)));
+        return groups;
+    }
+
+    private static int root(int[] parent, int q) {
+        while (parent[q] != q) {
+            parent[q] = parent[parent[q]];
+            q = parent[q];
+        }
+        return q;
+    }
+
+    // answers the queries of one group, run by one worker thread
+    private void answer(List<Integer> group, ProximityQuery[] queries, List<CompletableFuture<String>> answers) {
+        IntList candidates = new IntList(256);
+        IntList scratch = new IntList(256);
+        IntList survivors = new IntList(1024);
+        IntList next = new IntList(1024);
+        StringBuilder sb = new StringBuilder();
+        // only an Error gets past the per-query catch
+        Error failure = null;
+        try {
+            for (int q : group) {
+                ProximityQuery query = queries[q];
+                try {
+                    sb.setLength(0);
+                    int matches = 0;
+
+                    // files containing every term, rarest term first
+                    int[][] termFiles = new int[query.size()][];
+                    for (int i = 0; i < query.size(); i++) {
+                        termFiles[i] = files.computeIfAbsent(query.term(i), index::files);
+                    }
+                    QueryEngine.intersectFiles(termFiles, candidates, scratch);
+
+                    // the chain from its last term back to its first, over the shared decoded positions
+                    for (int c = 0; c < candidates.size(); c++) {
+                        int fileNum = candidates.get(c);
+                        IntList chain = QueryEngine.reduceChain(query, i -> decoded(query.term(i), fileNum), survivors, next);
+                        if (!chain.isEmpty()) {
+                            matches++;
+                            sb.append(fileNum).append('\t').append(index.fileName(fileNum)).append('\t').append(chain).append('\n');
+                        }
+                    }
+                    answers.get(q).complete((q + 1) + "\t" + query + "\t" + matches + "\n" + sb);
+                }
+                catch (RuntimeException ex) {
+                    // a failed index read or a bug, reported in place of the query's matches
+                    answers.get(q).complete((q + 1) + "\t" + query + "\terror: " + ex + "\n");
+                }
+            }
+        }
+        catch (Error ex) {
+            failure = ex;
+            throw ex;
+        }
+        finally {
+            // an Error ends the group early, fail the queries it did not answer so the writer does not wait for them
+            for (int q : group) {
+                answers.get(q).completeExceptionally(failure != null ? failure : new IllegalStateException("Query " + (q + 1) + " was not answered"));
+            }
+        }
+    }
+
+    // the positions of term in a file, decoded once per batch while the cache holds them
+    // and never modified once cached
+    private IntList decoded(String term, int fileNum) {
+        String key = term + ' ' + fileNum;
+        IntList list = positions.get(key);
+        if (list == null) {
+            PositionList encoded = index.positions(term, fileNum);
+            list = new IntList(encoded.size());
+            list.setSize(encoded.decodeInto(list.reserve(encoded.size())));
+            positions.put(key, list);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,244 @@
+/*
+    Builds the on-disk index with a bounded heap, in the style of SPIMI
+    (single-pass in-memory indexing). Files are added in order to an
+    IndexBuilder, whose own term dictionary and compressed position lists
+    form one block. When the builder's estimated size reaches the memory
+    budget, the block is sorted by term and flushed as a run file:
+
+    run file      term count, then per term in unsigned byte order: UTF-8
+                  term (short length), document frequency and one posting
+                  per file: file number, position count, byte length and
+                  the variable-byte encoded positions
+
+    After the last block the runs are merged with a priority queue keyed
+    by term, reading every run front to back through a small buffer. Runs
+    hold increasing file numbers, so the postings of a term are the
+    concatenation of its postings in run order and nothing is re-sorted.
+    The merge streams straight into the files written by DiskIndexWriter
+    and the result is identical to writing a fully in-memory index.
+
+    Only whole files are added to a block, so a block can exceed the budget
+    by the size of one file.
+*/
+
+package positionalindex;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+public class BlockIndexer {
+
+    static final String RUNS_DIR = "runs";
+
+    // temporary parts of terms.dat, joined after the merge
+    static final String ENTRIES_FILE = "terms.entries.tmp";
+    static final String OFFSETS_FILE = "terms.offsets.tmp";
+
+    // read buffer of every run during the merge
+    private static final int RUN_BUFFER = 1 << 16;
+
+    // a run file being merged, positioned after the header of its current term
+    private static class Run {
+        final int number;
+        final DataInputStream in;
+        int termsLeft;
+        byte[] term;
+        int docFreq;
+
+        Run(int number, File file) throws IOException {
+            this.number = number;
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), RUN_BUFFER));
+            this.termsLeft = in.readInt();
+        }
+
+        // reads the next term header, returns false at the end of the run
+        boolean advance() throws IOException {
+            if (termsLeft == 0) {
+                return false;
+            }
+            termsLeft--;
+            term = new byte[in.readUnsignedShort()];
+            in.readFully(term);
+            docFreq = in.readInt();
+            return true;
+        }
+    }
+
+    // indexes the files into dir keeping each block below memoryBudget bytes,
+    // returns the number of runs that were merged
+    public static int write(String[] fileNames, File dir, long memoryBudget) throws IOException {
+        File runDir = new File(dir, RUNS_DIR);
+        if (!runDir.isDirectory() && !runDir.mkdirs()) {
+            throw new IOException("Cannot create index directory " + runDir);
+        }
+
+        // index the files block by block, flushing a run whenever the budget is reached
+        List<File> runs = new ArrayList<>();
+        int[] fileLengths = new int[fileNames.length];
+        IndexBuilder builder = new IndexBuilder();
+        int blockStart = 0;
+        for (int i = 0; i < fileNames.length; i++) {
+            builder.addFile(fileNames[i], i + 1);
+            if (builder.estimatedBytes() >= memoryBudget || i == fileNames.length - 1) {
+                MemoryIndex block = builder.finish(fileNames);
+                builder = null; // release the build dictionary while the run is written
+                for (int fileNum = blockStart + 1; fileNum <= i + 1; fileNum++) {
+                    fileLengths[fileNum - 1] = block.fileLength(fileNum);
+                }
+                File run = new File(runDir, "run_" + runs.size());
+                writeRun(block, run);
+                runs.add(run);
+                builder = new IndexBuilder();
+                blockStart = i + 1;
+            }
+        }
+
+        // document table
+        try (DataOutputStream docs = DiskIndexWriter.open(new File(dir, MappedIndex.DOCS_FILE))) {
+            docs.writeInt(fileNames.length);
+            for (int i = 0; i < fileNames.length; i++) {
+                docs.writeUTF(fileNames[i]);
+                docs.writeInt(fileLengths[i]);
+            }
+        }
+
+        merge(runs, dir);
+
+        for (File run : runs) {
+            run.delete();
+        }
+        runDir.delete();
+        return runs.size();
+    }
+
+    // writes the terms of a block in sorted order with their postings
+    private static void writeRun(MemoryIndex block, File file) throws IOException {
+        try (DataOutputStream out = DiskIndexWriter.open(file)) {
+            out.writeInt(block.termCount());
+            for (int t = 0; t < block.termCount(); t++) {
+                byte[] term = DiskIndexWriter.termBytes(block.dictionary().term(t));
+                TermPostings termPostings = block.postings(t);
+                out.writeShort(term.length);
+                out.write(term);
+                out.writeInt(termPostings.size());
+                for (int i = 0; i < termPostings.size(); i++) {
+                    PositionList list = termPostings.positions(i);
+                    out.writeInt(termPostings.file(i));
+                    out.writeInt(list.size());
+                    out.writeInt(list.byteLength());
+                    out.write(list.bytes(), 0, list.byteLength());
+                }
+            }
+        }
+    }
+
+    // k-way merge of the runs into terms.dat, postings.dat and positions.dat
+    private static void merge(List<File> runFiles, File dir) throws IOException {
+        // smallest term first, equal terms in run order
+        PriorityQueue<Run> queue = new PriorityQueue<>(Math.max(1, runFiles.size()), (a, b) -> {
+            int cmp = Arrays.compareUnsigned(a.term, b.term);
+            return cmp != 0 ? cmp : Integer.compare(a.number, b.number);
+        });
+        List<Run> runs = new ArrayList<>();
+        File entriesFile = new File(dir, ENTRIES_FILE);
+        File offsetsFile = new File(dir, OFFSETS_FILE);
+        int termCount = 0;
+        long entryOffset = 0;
+
+        try (DataOutputStream entries = DiskIndexWriter.open(entriesFile);
+             DataOutputStream offsets = DiskIndexWriter.open(offsetsFile);
+             DataOutputStream postings = DiskIndexWriter.open(new File(dir, MappedIndex.POSTINGS_FILE));
+             DataOutputStream positions = DiskIndexWriter.open(new File(dir, MappedIndex.POSITIONS_FILE))) {
+
+            for (int r = 0; r < runFiles.size(); r++) {
+                Run run = new Run(r, runFiles.get(r));
+                runs.add(run);
+                if (run.advance()) {
+                    queue.add(run);
+                }
+            }
+
+            long postingsOffset = 0, positionsOffset = 0;
+            byte[] buffer = new byte[4096];
+            List<Run> same = new ArrayList<>();
+            while (!queue.isEmpty()) {
+                // every run positioned at the smallest term
+                same.clear();
+                same.add(queue.poll());
+                byte[] term = same.get(0).term;
+                while (!queue.isEmpty() && Arrays.equals(queue.peek().term, term)) {
+                    same.add(queue.poll());
+                }
+                int docFreq = 0;
+                for (Run run : same) {
+                    docFreq += run.docFreq;
+                }
+
+                // entry offsets are relative to the first entry until the table size is known
+                offsets.writeLong(entryOffset);
+                entries.writeShort(term.length);
+                entries.write(term);
+                entries.writeInt(docFreq);
+                entries.writeLong(postingsOffset);
+                entryOffset += 2 + term.length + MappedIndex.TERM_ENTRY_BYTES;
+                termCount++;
+
+                // copy the postings run by run, file numbers are already in order
+                for (Run run : same) {
+                    for (int d = 0; d < run.docFreq; d++) {
+                        int fileNum = run.in.readInt();
+                        int count = run.in.readInt();
+                        int length = run.in.readInt();
+                        if (length > buffer.length) {
+                            buffer = new byte[Math.max(length, buffer.length * 2)];
+                        }
+                        run.in.readFully(buffer, 0, length);
+                        postings.writeInt(fileNum);
+                        postings.writeInt(count);
+                        postings.writeLong(positionsOffset);
+                        postings.writeInt(length);
+                        positions.write(buffer, 0, length);
+                        postingsOffset += MappedIndex.POSTING_BYTES;
+                        positionsOffset += length;
+                    }
+                    if (run.advance()) {
+                        queue.add(run);
+                    }
+                }
+            }
+        }
+        finally {
+            for (Run run : runs) {
+                run.in.close();
+            }
+        }
+
+        // header, entry offset table and entries
+        long tableBytes = MappedIndex.TERMS_HEADER_BYTES + 4L * termCount;
+        if (tableBytes + entryOffset > Integer.MAX_VALUE) {
+            throw new IOException("Term dictionary exceeds 2 GB");
+        }
+        try (DataOutputStream terms = DiskIndexWriter.open(new File(dir, MappedIndex.TERMS_FILE));
+             DataInputStream offsets = new DataInputStream(new BufferedInputStream(new FileInputStream(offsetsFile), RUN_BUFFER))) {
+            terms.writeInt(MappedIndex.MAGIC);
+            terms.writeInt(MappedIndex.VERSION);
+            terms.writeInt(termCount);
+            for (int t = 0; t < termCount; t++) {
+                terms.writeInt((int) (tableBytes + offsets.readLong()));
+            }
+            Files.copy(entriesFile.toPath(), terms);
+        }
+        entriesFile.delete();
+        offsetsFile.delete();
+    }
+}
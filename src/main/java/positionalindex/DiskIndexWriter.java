@@ -0,0 +1,107 @@
+/*
+    Writes a positional index to a directory in the binary format read by
+    MappedIndex:
+
+    docs.dat      file count, then the name (writeUTF) and the number of
+                  word positions of every file
+    terms.dat     magic, version, term count, a table of entry offsets and
+                  the sorted term entries: UTF-8 term of at most 65535
+                  bytes, document frequency and offset of the term's
+                  records in postings.dat
+    postings.dat  per term, one fixed size record per file: file number,
+                  position count, offset and length in positions.dat
+    positions.dat the variable-byte encoded positions of every PositionList
+
+    All numbers are big-endian as written by DataOutputStream.
+*/
+
+package positionalindex;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+public class DiskIndexWriter {
+
+    // writes the index into dir, creating the directory if needed
+    public static void write(MemoryIndex index, File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create index directory " + dir);
+        }
+
+        // document table
+        try (DataOutputStream docs = open(new File(dir, MappedIndex.DOCS_FILE))) {
+            docs.writeInt(index.fileCount());
+            for (int fileNum = 1; fileNum <= index.fileCount(); fileNum++) {
+                docs.writeUTF(index.fileName(fileNum));
+                docs.writeInt(index.fileLength(fileNum));
+            }
+        }
+
+        int termCount = index.termCount();
+
+        // term ids follow the unsigned byte order MappedIndex uses for binary search
+        byte[][] termBytes = new byte[termCount][];
+        for (int t = 0; t < termCount; t++) {
+            termBytes[t] = termBytes(index.dictionary().term(t));
+        }
+
+        try (DataOutputStream terms = open(new File(dir, MappedIndex.TERMS_FILE));
+             DataOutputStream postings = open(new File(dir, MappedIndex.POSTINGS_FILE));
+             DataOutputStream positions = open(new File(dir, MappedIndex.POSITIONS_FILE))) {
+
+            terms.writeInt(MappedIndex.MAGIC);
+            terms.writeInt(MappedIndex.VERSION);
+            terms.writeInt(termCount);
+
+            // entry offset table, entries follow directly after it
+            long entryOffset = MappedIndex.TERMS_HEADER_BYTES + 4L * termCount;
+            for (int i = 0; i < termCount; i++) {
+                terms.writeInt((int) entryOffset);
+                entryOffset += 2 + termBytes[i].length + MappedIndex.TERM_ENTRY_BYTES;
+            }
+            if (entryOffset > Integer.MAX_VALUE) {
+                throw new IOException("Term dictionary exceeds 2 GB");
+            }
+
+            long postingsOffset = 0, positionsOffset = 0;
+            for (int t = 0; t < termCount; t++) {
+                TermPostings termPostings = index.postings(t);
+
+                terms.writeShort(termBytes[t].length);
+                terms.write(termBytes[t]);
+                terms.writeInt(termPostings.size());
+                terms.writeLong(postingsOffset);
+
+                for (int i = 0; i < termPostings.size(); i++) {
+                    PositionList list = termPostings.positions(i);
+                    postings.writeInt(termPostings.file(i));
+                    postings.writeInt(list.size());
+                    postings.writeLong(positionsOffset);
+                    postings.writeInt(list.byteLength());
+                    positions.write(list.bytes(), 0, list.byteLength());
+                    postingsOffset += MappedIndex.POSTING_BYTES;
+                    positionsOffset += list.byteLength();
+                }
+            }
+        }
+    }
+
+    // the UTF-8 bytes of a term, refusing a term too long for its length field
+    static byte[] termBytes(String term) throws IOException {
+        byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MappedIndex.MAX_TERM_BYTES) {
+            throw new IOException("Term of " + bytes.length + " bytes exceeds " + MappedIndex.MAX_TERM_BYTES + " bytes: "
+                    + term.substring(0, 40) + "...");
+        }
+        return bytes;
+    }
+
+    static DataOutputStream open(File file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+    }
+}
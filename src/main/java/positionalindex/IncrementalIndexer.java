@@ -0,0 +1,342 @@
+/*
+    Keeps a segmented index in step with a corpus directory without
+    re-indexing files that did not change.
+
+    update() compares the .txt files of the corpus with the manifest: new
+    files and files whose modification time or length changed are indexed
+    into one new immutable segment, and the old copies of changed files and
+    files that disappeared are recorded as tombstones. A single background
+    thread then merges segments as chosen by the MergePolicy. Merging reads
+    the postings of the live files back from the segments, so no file is
+    tokenized again.
+
+    The manifest is only changed while holding the indexer's lock; a merge
+    builds its segment without the lock and re-applies tombstones added in
+    the meantime before it publishes the result. Segment directories that
+    cannot be deleted once they are obsolete are retried on the next
+    publish and when the index is opened again.
+*/
+
+package positionalindex;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class IncrementalIndexer implements AutoCloseable {
+
+    static final String SEGMENT_PREFIX = "seg_";
+
+    private final File indexDir;
+    private final MergePolicy policy;
+    private final IndexManifest manifest;
+
+    // names of the segments the running merge reads, they must not be deleted under it
+    private final Set<String> merging = new HashSet<>();
+
+    // obsolete segment directories whose deletion failed
+    private final List<File> undeleted = new ArrayList<>();
+
+    // runs merges one at a time off the caller's thread
+    private final ExecutorService merger = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "segment-merger");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private IncrementalIndexer(File indexDir, MergePolicy policy, IndexManifest manifest) {
+        this.indexDir = indexDir;
+        this.policy = policy;
+        this.manifest = manifest;
+    }
+
+    // opens the segmented index in indexDir, creating an empty one if needed
+    public static IncrementalIndexer open(File indexDir, MergePolicy policy) throws IOException {
+        if (!indexDir.isDirectory() && !indexDir.mkdirs()) {
+            throw new IOException("Cannot create index directory " + indexDir);
+        }
+        if (!IndexManifest.exists(indexDir) && new File(indexDir, MappedIndex.TERMS_FILE).isFile()) {
+            throw new IOException(indexDir + " holds an index written by the index command, not a segmented index");
+        }
+        IncrementalIndexer indexer = new IncrementalIndexer(indexDir, policy, IndexManifest.load(indexDir));
+        // segments left behind by an earlier failed deletion or an interrupted merge
+        File[] entries = indexDir.listFiles();
+        if (entries != null) {
+            for (File entry : entries) {
+                if (entry.isDirectory() && entry.getName().startsWith(SEGMENT_PREFIX) && indexer.manifest.segment(entry.getName()) == null) {
+                    indexer.undeleted.add(entry);
+                }
+            }
+        }
+        indexer.deleteUndeleted();
+        return indexer;
+    }
+
+    // what one update did
+    public static class Result {
+        public int added, changed, deleted;
+        public String segment;
+    }
+
+    // brings the index up to date with the .txt files below corpusDir
+    public synchronized Result update(File corpusDir, int threads) throws IOException {
+        Result result = new Result();
+        // the same corpus must give the same file names however its path is spelled
+        corpusDir = corpusDir.getCanonicalFile();
+        List<String> fileNames = new ArrayList<>();
+        Problem2.listFilesInPath(corpusDir, fileNames);
+        fileNames.sort(null);
+
+        // find new and changed files, and tombstone the old copy of changed ones
+        List<String> toIndex = new ArrayList<>();
+        Map<String, long[]> stats = new HashMap<>();
+        Set<String> present = new HashSet<>();
+        for (String fileName : fileNames) {
+            File file = new File(fileName);
+            long lastModified = file.lastModified(), length = file.length();
+            present.add(fileName);
+            IndexManifest.Doc doc = manifest.docs.get(fileName);
+            if (doc == null) {
+                result.added++;
+            }
+            else if (doc.lastModified != lastModified || doc.length != length) {
+                result.changed++;
+                tombstone(doc);
+            }
+            else {
+                continue;
+            }
+            toIndex.add(fileName);
+            stats.put(fileName, new long[] { lastModified, length });
+        }
+
+        // tombstone files that are gone
+        for (String fileName : new ArrayList<>(manifest.docs.keySet())) {
+            if (!present.contains(fileName)) {
+                result.deleted++;
+                tombstone(manifest.docs.remove(fileName));
+            }
+        }
+
+        // index new and changed files into a new segment
+        if (!toIndex.isEmpty()) {
+            String[] names = toIndex.toArray(new String[0]);
+            MemoryIndex index = ParallelIndexer.build(names, threads);
+            String name = SEGMENT_PREFIX + manifest.nextSegment++;
+            DiskIndexWriter.write(index, new File(indexDir, name));
+            manifest.segments.add(new IndexManifest.Segment(name, names.length, new BitSet()));
+            for (int i = 0; i < names.length; i++) {
+                long[] stat = stats.get(names[i]);
+                manifest.docs.put(names[i], new IndexManifest.Doc(name, i + 1, stat[0], stat[1]));
+            }
+            result.segment = name;
+        }
+
+        if (!toIndex.isEmpty() || result.deleted > 0 || result.changed > 0) {
+            publish(dropEmptySegments());
+        }
+        return result;
+    }
+
+    // schedules merges until the merge policy is satisfied
+    public Future<?> mergeInBackground() {
+        return merger.submit(() -> {
+            while (mergeOnce()) {
+            }
+            return null;
+        });
+    }
+
+    // waits for running merges and stops the merge thread
+    public void close() throws IOException {
+        merger.shutdown();
+        try {
+            merger.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        }
+        catch (InterruptedException ex) {
+            // stop waiting, a cancelled merge leaves the published segments intact
+            merger.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public synchronized int segmentCount() {
+        return manifest.segments.size();
+    }
+
+    public synchronized long generation() {
+        return manifest.generation;
+    }
+
+    // merges one group of segments, returns false if nothing needed merging
+    boolean mergeOnce() throws IOException {
+        List<IndexManifest.Segment> sources;
+        List<BitSet> deletedAtStart = new ArrayList<>();
+        String name;
+        synchronized (this) {
+            sources = policy.select(manifest.segments);
+            if (sources.isEmpty()) {
+                return false;
+            }
+            for (IndexManifest.Segment segment : sources) {
+                deletedAtStart.add((BitSet) segment.deleted.clone());
+            }
+            name = SEGMENT_PREFIX + manifest.nextSegment++;
+            for (IndexManifest.Segment segment : sources) {
+                merging.add(segment.name);
+            }
+        }
+        try {
+            merge(sources, deletedAtStart, name);
+        }
+        finally {
+            synchronized (this) {
+                for (IndexManifest.Segment segment : sources) {
+                    merging.remove(segment.name);
+                }
+            }
+        }
+        return true;
+    }
+
+    // writes the live files of sources into segment name and swaps it in
+    private void merge(List<IndexManifest.Segment> sources, List<BitSet> deletedAtStart, String name) throws IOException {
+        // copy the live files of the sources into one new segment, numbered in name order
+        IndexBuilder builder = new IndexBuilder();
+        List<String> fileNames = new ArrayList<>();
+        List<int[]> renumbering = new ArrayList<>();
+        List<MappedIndex> segments = new ArrayList<>();
+        try {
+            List<int[]> live = new ArrayList<>();
+            for (int s = 0; s < sources.size(); s++) {
+                MappedIndex segment = MappedIndex.open(new File(indexDir, sources.get(s).name));
+                segments.add(segment);
+                renumbering.add(new int[segment.fileCount() + 1]);
+                for (int fileNum = 1; fileNum <= segment.fileCount(); fileNum++) {
+                    if (!deletedAtStart.get(s).get(fileNum)) {
+                        live.add(new int[] {s, fileNum});
+                    }
+                }
+            }
+            live.sort((a, b) -> segments.get(a[0]).fileName(a[1]).compareTo(segments.get(b[0]).fileName(b[1])));
+            for (int[] file : live) {
+                MappedIndex segment = segments.get(file[0]);
+                fileNames.add(segment.fileName(file[1]));
+                renumbering.get(file[0])[file[1]] = fileNames.size();
+                builder.setFileLength(fileNames.size(), segment.fileLength(file[1]));
+            }
+            for (int s = 0; s < segments.size(); s++) {
+                MappedIndex segment = segments.get(s);
+                int[] newNum = renumbering.get(s);
+                for (int ord = 0; ord < segment.termCount(); ord++) {
+                    String term = segment.term(ord);
+                    for (int i = 0; i < segment.docFreq(ord); i++) {
+                        int fileNum = segment.file(ord, i);
+                        if (newNum[fileNum] != 0) {
+                            builder.addPostings(term, newNum[fileNum], segment.positionsAt(ord, i));
+                        }
+                    }
+                }
+            }
+        }
+        finally {
+            // the positions were copied, unmap the sources so they can be deleted once the merge is published
+            for (MappedIndex segment : segments) {
+                segment.close();
+            }
+        }
+        DiskIndexWriter.write(builder.finish(fileNames.toArray(new String[0])), new File(indexDir, name));
+
+        synchronized (this) {
+            IndexManifest.Segment merged = new IndexManifest.Segment(name, fileNames.size(), new BitSet());
+            Map<String, int[]> bySource = new HashMap<>();
+            for (int s = 0; s < sources.size(); s++) {
+                IndexManifest.Segment source = sources.get(s);
+                bySource.put(source.name, renumbering.get(s));
+                // files deleted while the merge was running
+                BitSet late = (BitSet) source.deleted.clone();
+                late.andNot(deletedAtStart.get(s));
+                for (int fileNum = late.nextSetBit(0); fileNum >= 0; fileNum = late.nextSetBit(fileNum + 1)) {
+                    merged.deleted.set(renumbering.get(s)[fileNum]);
+                }
+            }
+            // point the live files at the merged segment
+            for (Map.Entry<String, IndexManifest.Doc> entry : manifest.docs.entrySet()) {
+                IndexManifest.Doc doc = entry.getValue();
+                int[] newNum = bySource.get(doc.segment);
+                if (newNum != null) {
+                    entry.setValue(new IndexManifest.Doc(name, newNum[doc.fileNum], doc.lastModified, doc.length));
+                }
+            }
+            // the merged segment takes the place of the first source
+            int at = manifest.segments.indexOf(sources.get(0));
+            manifest.segments.removeAll(sources);
+            manifest.segments.add(at < 0 ? manifest.segments.size() : at, merged);
+            List<IndexManifest.Segment> obsolete = new ArrayList<>(sources);
+            obsolete.addAll(dropEmptySegments());
+            publish(obsolete);
+        }
+    }
+
+    // records that a file of a segment is no longer live
+    private void tombstone(IndexManifest.Doc doc) {
+        IndexManifest.Segment segment = manifest.segment(doc.segment);
+        if (segment != null) {
+            segment.deleted.set(doc.fileNum);
+        }
+    }
+
+    // removes segments without live files from the manifest and returns them
+    private List<IndexManifest.Segment> dropEmptySegments() {
+        List<IndexManifest.Segment> empty = new ArrayList<>();
+        for (IndexManifest.Segment segment : manifest.segments) {
+            if (segment.liveCount() == 0 && !merging.contains(segment.name)) {
+                empty.add(segment);
+            }
+        }
+        manifest.segments.removeAll(empty);
+        return empty;
+    }
+
+    // saves a new manifest generation, then deletes the segments it no longer lists
+    private void publish(List<IndexManifest.Segment> obsolete) throws IOException {
+        manifest.generation++;
+        manifest.save(indexDir);
+        for (IndexManifest.Segment segment : obsolete) {
+            undeleted.add(new File(indexDir, segment.name));
+        }
+        deleteUndeleted();
+    }
+
+    // deletes obsolete segment directories, keeping those that fail for the next attempt
+    private void deleteUndeleted() {
+        for (Iterator<File> it = undeleted.iterator(); it.hasNext(); ) {
+            File dir = it.next();
+            File[] files = dir.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            if (dir.delete() || !dir.exists()) {
+                it.remove();
+            }
+            else {
+                // e.g. a file still mapped by a reader on a platform that refuses to delete it
+                System.err.println("Could not delete obsolete segment " + dir + ", will retry.");
+            }
+        }
+    }
+}
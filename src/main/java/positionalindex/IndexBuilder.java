@@ -0,0 +1,148 @@
+/*
+    Accumulates the positional index while files are tokenized. Every word
+    is turned into a dense term id with a single TermDictionary lookup and
+    its position appended to the term's PositionList for the current file,
+    found by id in a plain array. When a file is done, the lists of the
+    terms it touched are moved to the terms' postings.
+
+    A builder is used by one thread; ParallelIndexer gives every worker its
+    own builder and merges them. finish() freezes the dictionary into
+    sorted order and returns the MemoryIndex used for queries.
+*/
+
+package positionalindex;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class IndexBuilder {
+
+    private final TermDictionary dictionary = new TermDictionary();
+
+    // postings by build term id
+    private final ArrayList<TermPostings> postings = new ArrayList<>();
+
+    // positions of each term in the file being indexed, by build term id
+    private PositionList[] current = new PositionList[1024];
+
+    // ids of the terms that occur in the file being indexed
+    private final IntList touched = new IntList(1024);
+
+    private final Tokenizer tokenizer = new Tokenizer();
+
+    // number of word positions by file number
+    private final IntList fileLengths = new IntList(64);
+
+    // last position seen in the file being indexed
+    private int lastPosition;
+
+    // rough heap bytes of the postings and terms added by addFile
+    private long estimatedBytes;
+
+    // approximate heap bytes of a new term: dictionary slots, TermPostings and its arrays
+    private static final int TERM_BYTES = 128;
+
+    // approximate heap bytes of a posting besides its position bytes: file number and list slot
+    private static final int POSTING_BYTES = 16;
+
+    // tokenizes one file and adds its word positions under fileNum
+    // returns the number of bytes read from the file
+    public long addFile(String fileName, int fileNum) throws IOException {
+        long startTime = Metrics.ENABLED ? System.nanoTime() : 0;
+        lastPosition = 0;
+        int termsBefore = dictionary.size();
+        long bytesRead = tokenizer.tokenize(new File(fileName), (word, length, position) -> {
+            lastPosition = position;
+            int id = dictionary.add(word, length);
+            if (id >= current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            PositionList positions = current[id];
+            if (positions == null) { // first occurrence of the word in this file
+                positions = new PositionList();
+                current[id] = positions;
+                touched.add(id);
+            }
+            positions.add(position); // add the file position to the compressed position list
+        });
+
+        // move the file's position lists to the postings of their terms
+        for (int i = 0; i < touched.size(); i++) {
+            int id = touched.get(i);
+            postings(id).add(fileNum, current[id]);
+            estimatedBytes += current[id].estimatedBytes() + POSTING_BYTES;
+            current[id] = null;
+        }
+        touched.clear();
+        estimatedBytes += (long) (dictionary.size() - termsBefore) * TERM_BYTES;
+        setFileLength(fileNum, lastPosition);
+        if (Metrics.ENABLED) {
+            Metrics.fileIndexed(fileName, bytesRead, lastPosition, System.nanoTime() - startTime);
+        }
+        return bytesRead;
+    }
+
+    // records the number of word positions of a file, used with addPostings
+    public void setFileLength(int fileNum, int length) {
+        while (fileLengths.size() <= fileNum) {
+            fileLengths.add(0);
+        }
+        fileLengths.array()[fileNum] = length;
+    }
+
+    // adds the positions of term in a file, used to rewrite postings read from another index
+    public void addPostings(String term, int fileNum, PositionList positions) {
+        byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+        postings(dictionary.add(bytes, bytes.length)).add(fileNum, positions);
+    }
+
+    // adds the postings of another builder, whose files must not overlap with this one's
+    public void merge(IndexBuilder other) {
+        byte[] pool = other.dictionary.pool();
+        for (int otherId = 0; otherId < other.dictionary.size(); otherId++) {
+            int id = dictionary.add(pool, other.dictionary.offset(otherId), other.dictionary.length(otherId));
+            postings(id).addAll(other.postings.get(otherId));
+        }
+        for (int fileNum = 1; fileNum < other.fileLengths.size(); fileNum++) {
+            if (other.fileLengths.get(fileNum) != 0) {
+                setFileLength(fileNum, other.fileLengths.get(fileNum));
+            }
+        }
+    }
+
+    // number of distinct terms seen so far
+    public int termCount() {
+        return dictionary.size();
+    }
+
+    // rough heap bytes held by the files added with addFile, checked against the block budget of BlockIndexer
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    // freezes the terms in sorted order and returns the finished index
+    public MemoryIndex finish(String[] fileNames) {
+        int[] sortedIds = dictionary.sortedIds();
+        TermPostings[] sortedPostings = new TermPostings[sortedIds.length];
+        for (int i = 0; i < sortedIds.length; i++) {
+            sortedPostings[i] = postings.get(sortedIds[i]);
+            sortedPostings[i].finish();
+        }
+        int[] lengths = new int[fileNames.length];
+        for (int fileNum = 1; fileNum <= lengths.length && fileNum < fileLengths.size(); fileNum++) {
+            lengths[fileNum - 1] = fileLengths.get(fileNum);
+        }
+        return new MemoryIndex(dictionary.freeze(sortedIds), sortedPostings, fileNames, lengths);
+    }
+
+    private TermPostings postings(int id) {
+        while (postings.size() <= id) {
+            postings.add(new TermPostings());
+        }
+        return postings.get(id);
+    }
+}
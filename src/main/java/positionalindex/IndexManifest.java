@@ -0,0 +1,161 @@
+/*
+    The list of segments that make up an incrementally updated index, kept
+    in segments.txt in the index directory. Every segment is a directory
+    written by DiskIndexWriter; the manifest records how many files each
+    segment holds, which of them are deleted (tombstones), and for every
+    live corpus file the segment and file number holding it together with
+    the modification time and length it had when it was indexed.
+
+    generation is increased on every change, so readers can tell that an
+    index they opened is out of date. The file is rewritten through a
+    temporary file and an atomic rename, so readers always see either the
+    old or the new list.
+*/
+
+package positionalindex;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class IndexManifest {
+
+    static final String MANIFEST_FILE = "segments.txt";
+
+    // one immutable segment and its tombstones
+    public static class Segment {
+        public final String name;
+        public final int fileCount;
+
+        // deleted file numbers of the segment
+        public final BitSet deleted;
+
+        public Segment(String name, int fileCount, BitSet deleted) {
+            this.name = name;
+            this.fileCount = fileCount;
+            this.deleted = deleted;
+        }
+
+        public int liveCount() {
+            return fileCount - deleted.cardinality();
+        }
+    }
+
+    // where a corpus file is indexed and the state it was indexed in
+    public static class Doc {
+        public final String segment;
+        public final int fileNum;
+        public final long lastModified;
+        public final long length;
+
+        public Doc(String segment, int fileNum, long lastModified, long length) {
+            this.segment = segment;
+            this.fileNum = fileNum;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
+
+    long generation;
+
+    // number used for the name of the next segment
+    int nextSegment;
+
+    // segments in file numbering order
+    final List<Segment> segments = new ArrayList<>();
+
+    // live corpus files by path
+    final Map<String, Doc> docs = new LinkedHashMap<>();
+
+    public long generation() {
+        return generation;
+    }
+
+    public List<Segment> segments() {
+        return segments;
+    }
+
+    public Segment segment(String name) {
+        for (Segment segment : segments) {
+            if (segment.name.equals(name)) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    // true if dir holds a segmented index
+    public static boolean exists(File dir) {
+        return new File(dir, MANIFEST_FILE).isFile();
+    }
+
+    // reads the manifest of dir, or returns an empty one if there is none yet
+    public static IndexManifest load(File dir) throws IOException {
+        IndexManifest manifest = new IndexManifest();
+        File file = new File(dir, MANIFEST_FILE);
+        if (!file.isFile()) {
+            return manifest;
+        }
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                // the path is last so it may contain spaces
+                String[] fields = line.split(" ", 6);
+                switch (fields[0]) {
+                    case "generation":
+                        manifest.generation = Long.parseLong(fields[1]);
+                        break;
+                    case "next":
+                        manifest.nextSegment = Integer.parseInt(fields[1]);
+                        break;
+                    case "segment":
+                        manifest.segments.add(new Segment(fields[1], Integer.parseInt(fields[2]), new BitSet()));
+                        break;
+                    case "deleted":
+                        manifest.segment(fields[1]).deleted.set(Integer.parseInt(fields[2]));
+                        break;
+                    case "doc":
+                        manifest.docs.put(fields[5], new Doc(fields[1], Integer.parseInt(fields[2]),
+                                Long.parseLong(fields[3]), Long.parseLong(fields[4])));
+                        break;
+                    default:
+                        throw new IOException("Corrupt manifest line: " + line);
+                }
+            }
+        }
+        return manifest;
+    }
+
+    // writes the manifest to dir, replacing the previous one atomically
+    public void save(File dir) throws IOException {
+        File tmp = new File(dir, MANIFEST_FILE + ".tmp");
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(tmp))) {
+            out.write("generation " + generation + "\n");
+            out.write("next " + nextSegment + "\n");
+            for (Segment segment : segments) {
+                out.write("segment " + segment.name + " " + segment.fileCount + "\n");
+            }
+            for (Segment segment : segments) {
+                for (int fileNum = segment.deleted.nextSetBit(0); fileNum >= 0; fileNum = segment.deleted.nextSetBit(fileNum + 1)) {
+                    out.write("deleted " + segment.name + " " + fileNum + "\n");
+                }
+            }
+            for (Map.Entry<String, Doc> entry : docs.entrySet()) {
+                Doc doc = entry.getValue();
+                out.write("doc " + doc.segment + " " + doc.fileNum + " " + doc.lastModified + " " + doc.length + " " + entry.getKey() + "\n");
+            }
+        }
+        Files.move(tmp.toPath(), new File(dir, MANIFEST_FILE).toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+    Growable array of primitive ints. Query code keeps one IntList per
+    thread and clears it between calls, so collecting results does not
+    allocate once the buffer has grown to its working size.
+*/
+
+package positionalindex;
+
+import java.util.Arrays;
+
+public class IntList {
+
+    private int[] values;
+    private int size;
+
+    public IntList() {
+        this(16);
+    }
+
+    public IntList(int capacity) {
+        values = new int[Math.max(capacity, 1)];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    public int get(int i) {
+        return values[i];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // forgets the values but keeps the buffer
+    public void clear() {
+        size = 0;
+    }
+
+    // the backing array, valid up to size()
+    public int[] array() {
+        return values;
+    }
+
+    // makes the backing array hold at least capacity values, dropping its contents
+    public int[] reserve(int capacity) {
+        if (values.length < capacity) {
+            values = new int[Math.max(capacity, values.length * 2)];
+        }
+        size = 0;
+        return values;
+    }
+
+    // sets the number of valid values after the backing array was filled directly
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(values[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+    Concurrent latency histogram with HdrHistogram-style buckets. Values
+    below 128 have a bucket each; larger values keep their top 7 bits, so
+    every power of two range is split into 64 linear sub-buckets and a
+    recorded value is off by at most 1/64 (about 1.6%). All 63-bit values
+    fit in 3712 buckets, recording is a few shifts and an atomic increment
+    and no allocation.
+*/
+
+package positionalindex;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LatencyHistogram {
+
+    // values below LINEAR are counted exactly, above it SUB_BUCKETS per power of two
+    private static final int LINEAR = 128;
+    private static final int SUB_BUCKETS = 64;
+    private static final int BUCKETS = LINEAR + 56 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    // records one value, negative values count as 0
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+        }
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long sum() {
+        return sum.sum();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long n = count();
+        return n == 0 ? 0 : (double) sum() / n;
+    }
+
+    // the value at or below which the given percentage of the recorded values lie
+    public long percentile(double percent) {
+        long n = count();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percent / 100 * n));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= rank) {
+                return Math.min(highest(b), max());
+            }
+        }
+        return max();
+    }
+
+    // number of recorded values that are at most value, rounded to bucket bounds
+    public long countAtOrBelow(long value) {
+        long seen = 0;
+        for (int b = 0; b < BUCKETS && highest(b) <= value; b++) {
+            seen += counts.get(b);
+        }
+        return seen;
+    }
+
+    static int bucket(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - 6;
+        return LINEAR + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    // largest value counted in bucket b
+    static long highest(int b) {
+        if (b < LINEAR) {
+            return b;
+        }
+        int shift = (b - LINEAR) / SUB_BUCKETS + 1;
+        long sub = (b - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
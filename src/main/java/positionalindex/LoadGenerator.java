@@ -0,0 +1,125 @@
+/*
+    Load generator for QueryServer. Runs a number of client threads that
+    send proximity queries to the server as fast as they can and reports
+    the throughput and the latency percentiles of the whole run.
+
+    Usage: java positionalindex.LoadGenerator [--port P] [--clients N] [--requests N] [query ...]
+*/
+
+package positionalindex;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LoadGenerator {
+
+    // used when no queries are given on the command line
+    static final String[] DEFAULT_QUERIES = {
+        "united 1 states", "states 5 then", "the 2 whale", "said 1 the 0 king", "to 0 be 0 or 1 not", "she 3 her"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int port = 8080, clients = 8, requests = 10000;
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("--clients") && i + 1 < args.length) {
+                clients = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("--requests") && i + 1 < args.length) {
+                requests = Integer.parseInt(args[++i]);
+            }
+            else {
+                queries.add(args[i]);
+            }
+        }
+        if (clients <= 0 || requests <= 0) {
+            System.err.println("--clients and --requests must be positive integers.");
+            System.exit(1);
+        }
+        if (queries.isEmpty()) {
+            queries.addAll(Arrays.asList(DEFAULT_QUERIES));
+        }
+
+        final String base = "http://127.0.0.1:" + port + "/query?q=";
+        final String[] urls = new String[queries.size()];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = base + URLEncoder.encode(queries.get(i), StandardCharsets.UTF_8);
+        }
+
+        // latency of every request in nanoseconds, indexed by request number
+        final long[] latencies = new long[requests];
+        final AtomicInteger nextRequest = new AtomicInteger(0);
+        final int total = requests;
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<Integer>> results = new ArrayList<>();
+        long startTime = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            results.add(pool.submit(() -> {
+                int errors = 0, r;
+                while ((r = nextRequest.getAndIncrement()) < total) {
+                    long sent = System.nanoTime();
+                    if (!send(urls[r % urls.length])) {
+                        errors++;
+                    }
+                    latencies[r] = System.nanoTime() - sent;
+                }
+                return errors;
+            }));
+        }
+        int errors = 0;
+        for (Future<Integer> result : results) {
+            errors += result.get();
+        }
+        long elapsed = System.nanoTime() - startTime;
+        pool.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("%d requests, %d clients, %d errors in %d ms%n", requests, clients, errors, elapsed / 1000000);
+        System.out.printf("Throughput: %.1f requests/s%n", requests / (elapsed / 1e9));
+        System.out.printf("Latency p50: %.3f ms  p90: %.3f ms  p99: %.3f ms  max: %.3f ms%n",
+                percentile(latencies, 50) / 1e6, percentile(latencies, 90) / 1e6,
+                percentile(latencies, 99) / 1e6, latencies[latencies.length - 1] / 1e6);
+    }
+
+    // sends one request and reads the whole response, returns false on errors
+    private static boolean send(String url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            int status = connection.getResponseCode();
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (in != null) {
+                    in.readAllBytes();
+                }
+            }
+            return status == 200;
+        }
+        catch (IOException ex) {
+            return false;
+        }
+    }
+
+    // value at the given percentile of sorted values
+    static long percentile(long[] sorted, double percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(rank, sorted.length - 1))];
+    }
+}
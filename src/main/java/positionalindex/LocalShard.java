@@ -0,0 +1,43 @@
+/*
+    A shard held in this process: its own index, searched by one
+    QueryEngine per calling thread.
+*/
+
+package positionalindex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LocalShard implements Shard {
+
+    private final PositionalIndex index;
+    private final int base;
+    private final ThreadLocal<QueryEngine> engines;
+
+    public LocalShard(final PositionalIndex index, int base) {
+        this.index = index;
+        this.base = base;
+        this.engines = ThreadLocal.withInitial(() -> new QueryEngine(index));
+    }
+
+    public PositionalIndex index() {
+        return index;
+    }
+
+    public int base() {
+        return base;
+    }
+
+    public int fileCount() {
+        return index.fileCount();
+    }
+
+    public List<QueryEngine.Match> search(ProximityQuery query) {
+        List<QueryEngine.Match> local = engines.get().execute(query);
+        List<QueryEngine.Match> global = new ArrayList<>(local.size());
+        for (QueryEngine.Match match : local) {
+            global.add(new QueryEngine.Match(base + match.fileNum, match.positions));
+        }
+        return global;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+    Weight-bounded least-recently-used cache. Every entry has a weight,
+    roughly its size in bytes, and the least recently used entries are
+    evicted once the total weight exceeds the budget. All methods are
+    synchronized so one cache can be shared by the query threads.
+*/
+
+package positionalindex;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+public class LruCache<K, V> {
+
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+
+    // access order, the eldest entry is the least recently used
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long weight;
+
+    private long hits, misses, evictions;
+
+    public LruCache(long maxWeight, ToLongFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    // returns the cached value or null, and counts the hit or miss
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value == null) {
+            misses++;
+        }
+        else {
+            hits++;
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        long w = weigher.applyAsLong(value);
+        if (w > maxWeight) { // would evict everything else, do not cache, and do not keep an older value either
+            V old = entries.remove(key);
+            if (old != null) {
+                weight -= weigher.applyAsLong(old);
+            }
+            return;
+        }
+        V old = entries.put(key, value);
+        if (old != null) {
+            weight -= weigher.applyAsLong(old);
+        }
+        weight += w;
+        Iterator<Map.Entry<K, V>> eldest = entries.entrySet().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= weigher.applyAsLong(eldest.next().getValue());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+    A read-only memory-mapped file of any size. One MappedByteBuffer can
+    address at most 2 GB, so the file is mapped as consecutive regions of
+    regionSize bytes and every read is given a long file offset.
+
+    Each region is mapped a few bytes longer than regionSize, so a short,
+    int or long never straddles two regions; only bulk reads of byte
+    ranges are split across regions.
+
+    close() releases the mapping at once instead of when the buffers are
+    garbage collected, which lets the file be deleted on every platform.
+    Nothing may read the file while or after it is closed.
+*/
+
+package positionalindex;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class MappedFile implements AutoCloseable {
+
+    // bytes addressed by one region
+    static final int REGION_SIZE = 1 << 30;
+
+    // extra bytes mapped at the end of every region, the size of the largest primitive read
+    private static final int OVERLAP = 8;
+
+    // sun.misc.Unsafe and its invokeCleaner method, or null where they cannot be reached
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        }
+        catch (ReflectiveOperationException | RuntimeException ex) {
+            // unmap leaves the buffers to the garbage collector
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final long size;
+    private final int regionSize;
+    private final MappedByteBuffer[] regions;
+
+    private MappedFile(long size, int regionSize, MappedByteBuffer[] regions) {
+        this.size = size;
+        this.regionSize = regionSize;
+        this.regions = regions;
+    }
+
+    // maps the whole file; the mapping stays valid after the channel is closed
+    public static MappedFile map(File file) throws IOException {
+        return map(file, REGION_SIZE);
+    }
+
+    static MappedFile map(File file, int regionSize) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            int count = (int) Math.max(1, (size + regionSize - 1) / regionSize);
+            MappedByteBuffer[] regions = new MappedByteBuffer[count];
+            for (int r = 0; r < count; r++) {
+                long start = (long) r * regionSize;
+                long length = Math.min((long) regionSize + OVERLAP, size - start);
+                regions[r] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(0, length));
+            }
+            return new MappedFile(size, regionSize, regions);
+        }
+    }
+
+    // file size in bytes
+    public long size() {
+        return size;
+    }
+
+    public int getInt(long offset) {
+        return regions[(int) (offset / regionSize)].getInt((int) (offset % regionSize));
+    }
+
+    public long getLong(long offset) {
+        return regions[(int) (offset / regionSize)].getLong((int) (offset % regionSize));
+    }
+
+    // copies length bytes starting at offset into dst
+    public void get(long offset, byte[] dst, int dstOffset, int length) {
+        while (length > 0) {
+            int region = (int) (offset / regionSize);
+            int at = (int) (offset % regionSize);
+            int n = Math.min(length, regionSize - at);
+            regions[region].get(at, dst, dstOffset, n);
+            offset += n;
+            dstOffset += n;
+            length -= n;
+        }
+    }
+
+    // unmaps all regions, later reads fail with a NullPointerException instead of touching unmapped memory
+    public void close() {
+        for (int r = 0; r < regions.length; r++) {
+            if (regions[r] != null) {
+                unmap(regions[r]);
+                regions[r] = null;
+            }
+        }
+    }
+
+    // releases a mapping now if the JDK allows it, otherwise when the buffer is garbage collected
+    static void unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        }
+        catch (ReflectiveOperationException | RuntimeException ex) {
+            // left to the garbage collector
+        }
+    }
+}
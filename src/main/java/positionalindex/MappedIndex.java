@@ -0,0 +1,268 @@
+/*
+    Positional index opened from the files written by DiskIndexWriter.
+    The term dictionary, postings and positions are memory-mapped with
+    FileChannel.map and read in place (postings and positions through
+    MappedFile, so they may exceed 2 GB), so opening the index costs a few
+    system calls and the index data stays outside the garbage collected
+    heap. Only the document table is loaded onto the heap.
+
+    All reads use absolute buffer positions, so one MappedIndex can be
+    shared by several query threads. close() unmaps the files at once; it
+    may only be called once no thread reads the index any more.
+*/
+
+package positionalindex;
+
+import java.io.DataInputStream;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+public class MappedIndex implements PositionalIndex, AutoCloseable {
+
+    static final String DOCS_FILE = "docs.dat";
+    static final String TERMS_FILE = "terms.dat";
+    static final String POSTINGS_FILE = "postings.dat";
+    static final String POSITIONS_FILE = "positions.dat";
+
+    // "PIDX"
+    static final int MAGIC = 0x50494458;
+    // version 2 added the file lengths to docs.dat
+    static final int VERSION = 2;
+
+    // magic, version and term count
+    static final int TERMS_HEADER_BYTES = 12;
+
+    // document frequency and postings offset following the term bytes
+    static final int TERM_ENTRY_BYTES = 4 + 8;
+
+    // the term length is stored in an unsigned short
+    static final int MAX_TERM_BYTES = 0xFFFF;
+
+    // file number, position count, positions offset and byte length
+    static final int POSTING_BYTES = 4 + 4 + 8 + 4;
+
+    private static final int[] NO_FILES = new int[0];
+
+    private final String[] fileNames;
+    private final int[] fileLengths;
+    private final int termCount;
+    private MappedByteBuffer terms;
+    private final MappedFile postings;
+    private final MappedFile positions;
+
+    private MappedIndex(String[] fileNames, int[] fileLengths, MappedByteBuffer terms, MappedFile postings, MappedFile positions) {
+        this.fileNames = fileNames;
+        this.fileLengths = fileLengths;
+        this.terms = terms;
+        this.postings = postings;
+        this.positions = positions;
+        this.termCount = terms.getInt(8);
+    }
+
+    // opens the index stored in dir
+    public static MappedIndex open(File dir) throws IOException {
+        MappedByteBuffer terms = map(new File(dir, TERMS_FILE));
+        if (terms.capacity() < TERMS_HEADER_BYTES || terms.getInt(0) != MAGIC || terms.getInt(4) != VERSION) {
+            throw new IOException("Not a positional index or unsupported version, rebuild the index in " + dir);
+        }
+        String[] fileNames;
+        int[] fileLengths;
+        try (DataInputStream docs = new DataInputStream(new BufferedInputStream(new FileInputStream(new File(dir, DOCS_FILE))))) {
+            fileNames = new String[docs.readInt()];
+            fileLengths = new int[fileNames.length];
+            for (int i = 0; i < fileNames.length; i++) {
+                fileNames[i] = docs.readUTF();
+                fileLengths[i] = docs.readInt();
+            }
+        }
+        return new MappedIndex(fileNames, fileLengths, terms,
+                MappedFile.map(new File(dir, POSTINGS_FILE)),
+                MappedFile.map(new File(dir, POSITIONS_FILE)));
+    }
+
+    // maps the term dictionary, whose entry offsets are ints; the mapping stays valid after the channel is closed
+    private static MappedByteBuffer map(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Index file " + file + " is too large to map");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // unmaps the index files, later reads fail instead of touching unmapped memory
+    public void close() {
+        if (terms != null) {
+            MappedFile.unmap(terms);
+            terms = null;
+        }
+        postings.close();
+        positions.close();
+    }
+
+    public int fileCount() {
+        return fileNames.length;
+    }
+
+    public String fileName(int fileNum) {
+        return fileNames[fileNum - 1];
+    }
+
+    public int fileLength(int fileNum) {
+        return fileLengths[fileNum - 1];
+    }
+
+    public int termCount() {
+        return termCount;
+    }
+
+    public int[] files(String term) {
+        int entry = findTerm(term);
+        if (entry < 0) {
+            return NO_FILES;
+        }
+        int docFreq = entryDocFreq(entry);
+        long base = entryPostingsOffset(entry);
+        int[] files = new int[docFreq];
+        for (int i = 0; i < docFreq; i++) {
+            files[i] = postings.getInt(base + (long) i * POSTING_BYTES);
+        }
+        return files;
+    }
+
+    public int[] counts(String term) {
+        int entry = findTerm(term);
+        if (entry < 0) {
+            return NO_FILES;
+        }
+        int docFreq = entryDocFreq(entry);
+        long base = entryPostingsOffset(entry);
+        int[] counts = new int[docFreq];
+        for (int i = 0; i < docFreq; i++) {
+            counts[i] = postings.getInt(base + (long) i * POSTING_BYTES + 4);
+        }
+        return counts;
+    }
+
+    public PositionList positions(String term, int fileNum) {
+        int entry = findTerm(term);
+        if (entry < 0) {
+            return null;
+        }
+        // binary search the term's postings for the file
+        long base = entryPostingsOffset(entry);
+        int low = 0, high = entryDocFreq(entry) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long record = base + (long) mid * POSTING_BYTES;
+            int midFile = postings.getInt(record);
+            if (midFile < fileNum) {
+                low = mid + 1;
+            }
+            else if (midFile > fileNum) {
+                high = mid - 1;
+            }
+            else {
+                return readPositions(record);
+            }
+        }
+        return null;
+    }
+
+    public long postingsCount() {
+        return postings.size() / POSTING_BYTES;
+    }
+
+    // size of positions.dat
+    public long estimatedBytes() {
+        return positions.size();
+    }
+
+    // the term with rank ord in the sorted dictionary, 0 <= ord < termCount()
+    public String term(int ord) {
+        int entry = entry(ord);
+        int length = terms.getShort(entry) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        terms.get(entry + 2, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // number of files containing the term with rank ord
+    public int docFreq(int ord) {
+        return entryDocFreq(entry(ord));
+    }
+
+    // file number of the i-th posting of the term with rank ord
+    public int file(int ord, int i) {
+        return postings.getInt(entryPostingsOffset(entry(ord)) + (long) i * POSTING_BYTES);
+    }
+
+    // positions of the i-th posting of the term with rank ord
+    public PositionList positionsAt(int ord, int i) {
+        return readPositions(entryPostingsOffset(entry(ord)) + (long) i * POSTING_BYTES);
+    }
+
+    private int entry(int ord) {
+        return terms.getInt(TERMS_HEADER_BYTES + 4 * ord);
+    }
+
+    // copies the positions of the postings record at the given offset
+    private PositionList readPositions(long record) {
+        int count = postings.getInt(record + 4);
+        long offset = postings.getLong(record + 8);
+        int length = postings.getInt(record + 16);
+        byte[] bytes = new byte[length];
+        positions.get(offset, bytes, 0, length);
+        return new PositionList(bytes, length, count);
+    }
+
+    // returns the byte offset of the term's entry in terms.dat, or -1
+    private int findTerm(String term) {
+        byte[] key = term.getBytes(StandardCharsets.UTF_8);
+        int low = 0, high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = entry(mid);
+            int cmp = compareTerm(entry, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            }
+            else if (cmp > 0) {
+                high = mid - 1;
+            }
+            else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    // compares the stored term at entry with key as unsigned bytes
+    private int compareTerm(int entry, byte[] key) {
+        int length = terms.getShort(entry) & 0xFFFF;
+        int n = Math.min(length, key.length);
+        for (int i = 0; i < n; i++) {
+            int a = terms.get(entry + 2 + i) & 0xFF;
+            int b = key[i] & 0xFF;
+            if (a != b) {
+                return a - b;
+            }
+        }
+        return length - key.length;
+    }
+
+    private int entryDocFreq(int entry) {
+        return terms.getInt(entry + 2 + (terms.getShort(entry) & 0xFFFF));
+    }
+
+    private long entryPostingsOffset(int entry) {
+        return terms.getLong(entry + 2 + (terms.getShort(entry) & 0xFFFF) + 4);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+    Positional index held on the heap, as built by IndexBuilder. Terms are
+    kept in a SortedTermDictionary and the postings of the term with id i
+    are postings[i], so a lookup is one dictionary search followed by
+    array access.
+*/
+
+package positionalindex;
+
+public class MemoryIndex implements PositionalIndex {
+
+    private static final int[] NO_FILES = new int[0];
+
+    private final SortedTermDictionary dictionary;
+
+    // postings by term id
+    private final TermPostings[] postings;
+
+    // file names indexed by file number - 1
+    private final String[] fileNames;
+
+    // word positions of each file indexed by file number - 1
+    private final int[] fileLengths;
+
+    public MemoryIndex(SortedTermDictionary dictionary, TermPostings[] postings, String[] fileNames, int[] fileLengths) {
+        this.dictionary = dictionary;
+        this.postings = postings;
+        this.fileNames = fileNames;
+        this.fileLengths = fileLengths;
+    }
+
+    public SortedTermDictionary dictionary() {
+        return dictionary;
+    }
+
+    // the postings of the term with the given id
+    public TermPostings postings(int termId) {
+        return postings[termId];
+    }
+
+    // the postings of term, or null if the term is unknown
+    public TermPostings postings(String term) {
+        int id = dictionary.id(term);
+        return id < 0 ? null : postings[id];
+    }
+
+    public int fileCount() {
+        return fileNames.length;
+    }
+
+    public String fileName(int fileNum) {
+        return fileNames[fileNum - 1];
+    }
+
+    public int fileLength(int fileNum) {
+        return fileLengths[fileNum - 1];
+    }
+
+    public int termCount() {
+        return postings.length;
+    }
+
+    public int[] files(String term) {
+        TermPostings termPostings = postings(term);
+        return termPostings == null ? NO_FILES : termPostings.files();
+    }
+
+    public int[] counts(String term) {
+        TermPostings termPostings = postings(term);
+        if (termPostings == null) {
+            return NO_FILES;
+        }
+        int[] counts = new int[termPostings.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = termPostings.positions(i).size();
+        }
+        return counts;
+    }
+
+    public PositionList positions(String term, int fileNum) {
+        TermPostings termPostings = postings(term);
+        return termPostings == null ? null : termPostings.find(fileNum);
+    }
+
+    public long postingsCount() {
+        long count = 0;
+        for (TermPostings termPostings : postings) {
+            count += termPostings.size();
+        }
+        return count;
+    }
+
+    // rough estimate of heap bytes used by the postings
+    public long estimatedBytes() {
+        long indexBytes = 0;
+        for (TermPostings termPostings : postings) {
+            indexBytes += termPostings.estimatedBytes();
+        }
+        return indexBytes;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+    Decides which segments of an incrementally updated index to merge.
+    Every update adds a small segment, so segments are merged once there
+    are more than maxSegments of them, mergeFactor smallest first. A
+    segment where more than maxDeletedRatio of the files are tombstones is
+    rewritten on its own to drop the deleted postings.
+*/
+
+package positionalindex;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class MergePolicy {
+
+    private final int maxSegments;
+    private final int mergeFactor;
+    private final double maxDeletedRatio;
+
+    public MergePolicy() {
+        this(8, 4, 0.5);
+    }
+
+    public MergePolicy(int maxSegments, int mergeFactor, double maxDeletedRatio) {
+        if (mergeFactor < 2) {
+            throw new IllegalArgumentException("mergeFactor must be at least 2");
+        }
+        this.maxSegments = maxSegments;
+        this.mergeFactor = mergeFactor;
+        this.maxDeletedRatio = maxDeletedRatio;
+    }
+
+    // returns the segments to merge into one, or an empty list if none need merging
+    public List<IndexManifest.Segment> select(List<IndexManifest.Segment> segments) {
+        List<IndexManifest.Segment> selected = new ArrayList<>();
+        if (segments.size() > maxSegments) {
+            List<IndexManifest.Segment> bySize = new ArrayList<>(segments);
+            bySize.sort(Comparator.comparingInt(IndexManifest.Segment::liveCount));
+            selected.addAll(bySize.subList(0, Math.min(mergeFactor, bySize.size())));
+            return selected;
+        }
+        for (IndexManifest.Segment segment : segments) {
+            if (segment.fileCount > 0 && segment.deleted.cardinality() > maxDeletedRatio * segment.fileCount) {
+                selected.add(segment);
+                return selected;
+            }
+        }
+        return selected;
+    }
+}
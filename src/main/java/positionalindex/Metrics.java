@@ -0,0 +1,189 @@
+/*
+    Process-wide instrumentation: indexing time and throughput per file,
+    index size, query latency histograms and the work done inside the
+    intersection routines, exported as Prometheus text or JSON.
+
+    Metrics are off unless the system property positionalindex.metrics is
+    true when this class is first used (Problem2 sets it for --metrics).
+    ENABLED is a static final, so with metrics off the JIT removes the
+    guarded code and the hot paths pay nothing; callers test ENABLED
+    before reading the clock or counting.
+*/
+
+package positionalindex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Metrics {
+
+    public static final boolean ENABLED = Boolean.getBoolean("positionalindex.metrics");
+
+    // one indexed file
+    public static class FileStats {
+        public final String fileName;
+        public final long bytes;
+        public final int tokens;
+        public final long nanos;
+
+        FileStats(String fileName, long bytes, int tokens, long nanos) {
+            this.fileName = fileName;
+            this.bytes = bytes;
+            this.tokens = tokens;
+            this.nanos = nanos;
+        }
+
+        public double tokensPerSecond() {
+            return tokens / Math.max(nanos / 1e9, 1e-9);
+        }
+    }
+
+    // indexing
+    static final ConcurrentLinkedQueue<FileStats> files = new ConcurrentLinkedQueue<>();
+    static final LongAdder filesIndexed = new LongAdder();
+    static final LongAdder tokensIndexed = new LongAdder();
+    static final LongAdder bytesIndexed = new LongAdder();
+    static final LongAdder indexNanos = new LongAdder();
+
+    // size of the last built or opened index
+    static final AtomicLong indexTerms = new AtomicLong();
+    static final AtomicLong indexPostings = new AtomicLong();
+    static final AtomicLong indexBytes = new AtomicLong();
+
+    // query latency in nanoseconds
+    public static final LatencyHistogram queryLatency = new LatencyHistogram();
+    public static final LatencyHistogram rankedQueryLatency = new LatencyHistogram();
+
+    // position list intersection in ProximityIntersector
+    static final LongAdder positionsScanned = new LongAdder();
+    static final LongAdder positionSkips = new LongAdder();
+
+    // file list intersection in QueryEngine.intersectSorted
+    static final LongAdder postingsScanned = new LongAdder();
+    static final LongAdder postingSkips = new LongAdder();
+
+    // records one file tokenized and added to an index
+    public static void fileIndexed(String fileName, long bytes, int tokens, long nanos) {
+        files.add(new FileStats(fileName, bytes, tokens, nanos));
+        filesIndexed.increment();
+        tokensIndexed.add(tokens);
+        bytesIndexed.add(bytes);
+        indexNanos.add(nanos);
+    }
+
+    // records the size of the index being queried
+    public static void indexSize(long terms, long postings, long bytes) {
+        indexTerms.set(terms);
+        indexPostings.set(postings);
+        indexBytes.set(bytes);
+    }
+
+    // records the work of one position list intersection
+    public static void positionsIntersected(long scanned, long skips) {
+        positionsScanned.add(scanned);
+        positionSkips.add(skips);
+    }
+
+    // records the work of one file list intersection
+    public static void postingsIntersected(long scanned, long skips) {
+        postingsScanned.add(scanned);
+        postingSkips.add(skips);
+    }
+
+    // the files indexed so far, in the order they finished
+    public static List<FileStats> files() {
+        return new ArrayList<>(files);
+    }
+
+    // all metrics in the Prometheus text exposition format
+    public static String prometheus() {
+        StringBuilder sb = new StringBuilder();
+        gauge(sb, "index_files_total", "counter", "Files tokenized and indexed", filesIndexed.sum());
+        gauge(sb, "index_tokens_total", "counter", "Word positions indexed", tokensIndexed.sum());
+        gauge(sb, "index_bytes_read_total", "counter", "Bytes read from indexed files", bytesIndexed.sum());
+        gauge(sb, "index_seconds_total", "counter", "Time spent tokenizing and indexing files", indexNanos.sum() / 1e9);
+        gauge(sb, "index_terms", "gauge", "Distinct terms in the index", indexTerms.get());
+        gauge(sb, "index_postings", "gauge", "Postings (term, file) in the index", indexPostings.get());
+        gauge(sb, "index_estimated_bytes", "gauge", "Estimated bytes of position data", indexBytes.get());
+        sb.append("# HELP index_file_tokens_per_second Tokenize and index throughput of each file\n");
+        sb.append("# TYPE index_file_tokens_per_second gauge\n");
+        for (FileStats file : files) {
+            sb.append("index_file_tokens_per_second{file=\"").append(escape(file.fileName)).append("\"} ")
+              .append(Math.round(file.tokensPerSecond())).append('\n');
+        }
+        gauge(sb, "intersect_positions_scanned_total", "counter", "Position list entries visited by ProximityIntersector", positionsScanned.sum());
+        gauge(sb, "intersect_position_skips_total", "counter", "Gallops taken over position lists", positionSkips.sum());
+        gauge(sb, "intersect_postings_scanned_total", "counter", "File list entries visited by the file intersection", postingsScanned.sum());
+        gauge(sb, "intersect_posting_skips_total", "counter", "Gallops taken over file lists", postingSkips.sum());
+        histogram(sb, "query_latency_seconds", "Latency of unranked queries", queryLatency);
+        histogram(sb, "ranked_query_latency_seconds", "Latency of ranked queries", rankedQueryLatency);
+        return sb.toString();
+    }
+
+    // all metrics as one JSON object
+    public static String json() {
+        StringBuilder sb = new StringBuilder("{\n");
+        sb.append("  \"index\": {\"files\": ").append(filesIndexed.sum())
+          .append(", \"tokens\": ").append(tokensIndexed.sum())
+          .append(", \"bytesRead\": ").append(bytesIndexed.sum())
+          .append(", \"seconds\": ").append(number(indexNanos.sum() / 1e9))
+          .append(", \"terms\": ").append(indexTerms.get())
+          .append(", \"postings\": ").append(indexPostings.get())
+          .append(", \"estimatedBytes\": ").append(indexBytes.get()).append("},\n");
+        sb.append("  \"files\": [");
+        String separator = "\n";
+        for (FileStats file : files) {
+            sb.append(separator).append("    {\"file\": \"").append(escape(file.fileName))
+              .append("\", \"bytes\": ").append(file.bytes)
+              .append(", \"tokens\": ").append(file.tokens)
+              .append(", \"millis\": ").append(String.format(Locale.ROOT, "%.3f", file.nanos / 1e6))
+              .append(", \"tokensPerSecond\": ").append(Math.round(file.tokensPerSecond())).append('}');
+            separator = ",\n";
+        }
+        sb.append(separator.equals("\n") ? "],\n" : "\n  ],\n");
+        sb.append("  \"intersect\": {\"positionsScanned\": ").append(positionsScanned.sum())
+          .append(", \"positionSkips\": ").append(positionSkips.sum())
+          .append(", \"postingsScanned\": ").append(postingsScanned.sum())
+          .append(", \"postingSkips\": ").append(postingSkips.sum()).append("},\n");
+        sb.append("  \"queryLatency\": ").append(json(queryLatency)).append(",\n");
+        sb.append("  \"rankedQueryLatency\": ").append(json(rankedQueryLatency)).append('\n');
+        return sb.append("}\n").toString();
+    }
+
+    private static void gauge(StringBuilder sb, String name, String type, String help, double value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        sb.append(name).append(' ').append(number(value)).append('\n');
+    }
+
+    // cumulative buckets at powers of two microseconds, as a Prometheus histogram
+    private static void histogram(StringBuilder sb, String name, String help, LatencyHistogram histogram) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" histogram\n");
+        for (long micros = 16; micros <= (1L << 24); micros <<= 1) {
+            sb.append(name).append("_bucket{le=\"").append(number(micros / 1e6)).append("\"} ")
+              .append(histogram.countAtOrBelow(micros * 1000)).append('\n');
+        }
+        sb.append(name).append("_bucket{le=\"+Inf\"} ").append(histogram.count()).append('\n');
+        sb.append(name).append("_sum ").append(number(histogram.sum() / 1e9)).append('\n');
+        sb.append(name).append("_count ").append(histogram.count()).append('\n');
+    }
+
+    private static String json(LatencyHistogram histogram) {
+        return String.format(Locale.ROOT, "{\"count\": %d, \"meanMicros\": %.1f, \"p50Micros\": %.1f, \"p90Micros\": %.1f, \"p99Micros\": %.1f, \"p999Micros\": %.1f, \"maxMicros\": %.1f}",
+                histogram.count(), histogram.mean() / 1e3, histogram.percentile(50) / 1e3, histogram.percentile(90) / 1e3,
+                histogram.percentile(99) / 1e3, histogram.percentile(99.9) / 1e3, histogram.max() / 1e3);
+    }
+
+    private static String number(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,70 @@
+/*
+    Builds the positional index with a fixed pool of worker threads.
+    Every worker pulls the next unclaimed file from a shared counter and
+    indexes it into its own IndexBuilder, so no locking is needed while
+    tokenizing. The builders are merged once all files are done. File
+    numbers come from the position of the file in inputFileNames and term
+    ids are assigned in sorted order when the index is finished, so the
+    result is the same as a sequential build no matter which thread
+    handled which file.
+*/
+
+package positionalindex;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelIndexer {
+
+    // indexes fileNames using the given number of threads
+    // file fileNames[i] gets file number i + 1, like the sequential loop in Problem2
+    public static MemoryIndex build(final String[] fileNames, int threads) throws IOException {
+        final AtomicInteger nextFile = new AtomicInteger(0);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<IndexBuilder>> partials = new ArrayList<>();
+
+        try {
+            // start one worker per thread, each with its own partial index
+            for (int t = 0; t < threads; t++) {
+                partials.add(pool.submit(new Callable<IndexBuilder>() {
+                    public IndexBuilder call() throws IOException {
+                        IndexBuilder partial = new IndexBuilder();
+                        int index;
+                        while ((index = nextFile.getAndIncrement()) < fileNames.length) {
+                            partial.addFile(fileNames[index], index + 1);
+                        }
+                        return partial;
+                    }
+                }));
+            }
+
+            // merge the partial indexes, every file lives in exactly one partial
+            IndexBuilder builder = partials.get(0).get();
+            for (int t = 1; t < partials.size(); t++) {
+                builder.merge(partials.get(t).get());
+            }
+            return builder.finish(fileNames);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Indexing interrupted", ex);
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+}
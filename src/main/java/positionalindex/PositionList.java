@@ -0,0 +1,166 @@
+/*
+    Compact postings for a single (term, document) pair of the
+    positional index. Positions are stored as gaps between consecutive
+    positions, and every gap is variable-byte encoded: 7 data bits per
+    byte, high bit set on the last byte of a number. Word positions in a
+    book are small increasing numbers, so most gaps fit in a single byte
+    instead of the ~40 bytes a boxed Integer inside a LinkedList node costs.
+*/
+
+package positionalindex;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+public class PositionList {
+
+    // initial capacity of the encoded byte buffer
+    private static final int INITIAL_CAPACITY = 4;
+
+    // variable-byte encoded gaps between positions
+    private byte[] bytes;
+
+    // number of bytes of the buffer in use
+    private int length;
+
+    // number of positions in the list
+    private int count;
+
+    // last position added, the base for the next gap
+    private int last;
+
+    public PositionList() {
+        this.bytes = new byte[INITIAL_CAPACITY];
+    }
+
+    // wraps an already encoded buffer, used when postings are read back
+    public PositionList(byte[] bytes, int length, int count) {
+        this.bytes = bytes;
+        this.length = length;
+        this.count = count;
+        this.last = lastPosition();
+    }
+
+    // appends a position; positions must be added in increasing order
+    public void add(int position) {
+        if (count > 0 && position <= last) {
+            throw new IllegalArgumentException("Positions must be increasing: " + position + " after " + last);
+        }
+        int gap = count == 0 ? position : position - last;
+        ensureCapacity(length + 5);
+        length = writeVByte(bytes, length, gap);
+        last = position;
+        count++;
+    }
+
+    // number of positions stored
+    public int size() {
+        return count;
+    }
+
+    // number of bytes used by the encoded positions
+    public int byteLength() {
+        return length;
+    }
+
+    // the encoded buffer, valid up to byteLength()
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    // releases the unused tail of the buffer once a document is fully indexed
+    public void trim() {
+        if (bytes.length != length) {
+            bytes = Arrays.copyOf(bytes, length);
+        }
+    }
+
+    // returns a new iterator over the decoded positions
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    // decodes all positions into an int array
+    public int[] toArray() {
+        int[] positions = new int[count];
+        decodeInto(positions);
+        return positions;
+    }
+
+    // decodes all positions into dst, which must hold at least size() values
+    public int decodeInto(int[] dst) {
+        int offset = 0, position = 0;
+        for (int i = 0; i < count; i++) {
+            int value = 0, shift = 0, b;
+            do {
+                b = bytes[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) == 0);
+            position += value;
+            dst[i] = position;
+        }
+        return count;
+    }
+
+    // rough estimate of heap bytes used by this list (header, fields and buffer)
+    public long estimatedBytes() {
+        return 32 + 16 + bytes.length;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private int lastPosition() {
+        Cursor c = cursor();
+        int position = 0;
+        while (c.hasNext()) {
+            position = c.next();
+        }
+        return position;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(needed, bytes.length * 2));
+        }
+    }
+
+    // writes value as a variable-byte number, returns the new offset
+    public static int writeVByte(byte[] dst, int offset, int value) {
+        while (value >= 0x80) {
+            dst[offset++] = (byte) (value & 0x7F);
+            value >>>= 7;
+        }
+        dst[offset++] = (byte) (value | 0x80);
+        return offset;
+    }
+
+    // decoding iterator, walks the encoded gaps without allocating
+    public class Cursor {
+        private int offset = 0;
+        private int remaining = count;
+        private int position = 0;
+
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        public int next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            int value = 0, shift = 0, b;
+            do {
+                b = bytes[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) == 0);
+            remaining--;
+            position += value;
+            return position;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+    Read access to a positional index, shared by the in-memory index built
+    from the corpus (MemoryIndex) and the memory-mapped on-disk index
+    (MappedIndex). Files are numbered from 1 to fileCount() in file name
+    order, as listed by Problem2.sortedFileNames.
+*/
+
+package positionalindex;
+
+public interface PositionalIndex {
+
+    // number of indexed files
+    int fileCount();
+
+    // path of the file with the given file number
+    String fileName(int fileNum);
+
+    // number of distinct terms
+    int termCount();
+
+    // sorted file numbers of the files containing term, empty if the term is unknown
+    int[] files(String term);
+
+    // positions of term in the given file, or null if the term does not occur there
+    PositionList positions(String term, int fileNum);
+
+    // number of word positions in the file, the document length used for ranking
+    int fileLength(int fileNum);
+
+    // number of positions of term in each file of files(term), read without decoding them
+    default int[] counts(String term) {
+        int[] files = files(term);
+        int[] counts = new int[files.length];
+        for (int i = 0; i < files.length; i++) {
+            counts[i] = positions(term, files[i]).size();
+        }
+        return counts;
+    }
+
+    // number of (term, file) postings
+    long postingsCount();
+
+    // approximate bytes of position data
+    long estimatedBytes();
+
+    // changes whenever the indexed content changes, used to invalidate cached results
+    default long generation() {
+        return 0;
+    }
+}
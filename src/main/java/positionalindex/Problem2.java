@@ -0,0 +1,649 @@
+/*
+    This program computes letter and word frequencies
+    on a subset of documents in the Gutenberg corpus
+    Author: Evan Brown
+    Date Created: 02 Jan 2021
+    Date Last Modified: 09 Jan 2021
+*/
+
+package positionalindex;
+
+// represents files and directory pathnames 
+// in an abstract manner
+import java.io.File;
+
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+
+// signals that an input/output (I/O) exception 
+// of some kind has occurred
+import java.io.IOException;
+
+// scans for user input
+import java.util.Scanner;
+
+
+import java.util.*;
+
+// thrown by Future.get when the background task failed
+import java.util.concurrent.ExecutionException;
+
+
+public class Problem2 {
+
+    // a list to hold Gutenberg corpus file names, it grows with the corpus
+    static ArrayList<String> inputFileNames = new ArrayList<>();
+
+
+    // loads all files names in the directory subtree into a list
+    // violates good programming practice by accessing a global variable (inputFileNames)
+    public static void listFilesInPath(final File path) {
+        listFilesInPath(path, inputFileNames);
+    }
+
+    // adds the names of all .txt files in the directory subtree to fileNames
+    public static void listFilesInPath(final File path, List<String> fileNames) {
+        File[] entries = path.listFiles();
+        if (entries == null) { // not a directory or not readable
+            return;
+        }
+        for (final File fileEntry : entries) {
+        	if (fileEntry.isDirectory()) {
+                listFilesInPath(fileEntry, fileNames);
+            } 
+            else if (fileEntry.getName().endsWith((".txt")))  {
+                fileNames.add(fileEntry.getPath());
+                // fileNameListWriter.println(fileEntry.getPath());
+                // System.out.println(fileEntry.getName());
+                // System.out.println(fileEntry.getAbsolutePath());
+                // System.out.println(fileEntry.getCanonicalPath());
+            }
+        }
+    }
+
+    // lists the .txt files below path in name order, so every command and separate shard processes agree on file numbers
+    public static String[] sortedFileNames(String path) {
+        ArrayList<String> fileNames = new ArrayList<>();
+        listFilesInPath(new File(path), fileNames);
+        Collections.sort(fileNames);
+        return fileNames.toArray(new String[0]);
+    }
+
+    // returns index of a character in the alphabet 
+    // uses zero-based indexing
+    public static int getLetterValue(char letter) {
+        return (int) Character.toUpperCase(letter) - 65;
+    }
+	
+    // appends to answer the positions of word1 that have word2 within bufferValue words
+    // before or after them; the sorted position arrays are only read, never modified,
+    // and the second list is skipped through by galloping instead of stepping
+    public static void intersectWithSkips(int[] word1, int n1, int[] word2, int n2, int bufferValue, IntList answer) {
+    	ProximityIntersector.intersect(word1, n1, word2, n2, bufferValue, answer);
+    }
+    
+    // lists the files below inputFileDirName and builds the in-memory positional index
+    public static MemoryIndex buildIndex(String inputFileDirName, int threads) throws IOException {
+        System.out.println("Input files directory path name is: " + inputFileDirName);
+        
+        // collects file names in name order and write them to 
+        // the same numbering as index --memory, shards and shard
+        inputFileNames.clear();
+        String[] fileNames = sortedFileNames(inputFileDirName);
+        Collections.addAll(inputFileNames, fileNames);
+        
+        // initialization
+        // the index maps every term to the files it occurs in and the term's
+        // compressed positions in each of those files
+        MemoryIndex index;
+        
+    	System.out.print("Start parsing words.\n");
+    	long startTime = System.nanoTime();
+    	
+		if (threads == 1) {
+			// every word is looked up once in the builder's term dictionary
+			IndexBuilder builder = new IndexBuilder();
+			// process one file at a time, file numbers start at 1 and follow the order of inputFileNames
+			for (int i = 0; i < fileNames.length; i++) {
+				builder.addFile(fileNames[i], i + 1);
+			}
+			index = builder.finish(fileNames);
+		}
+		else {
+			index = ParallelIndexer.build(fileNames, threads);
+		}
+        
+    	System.out.print("Stop parsing words.\n");
+    	long elapsed = System.nanoTime() - startTime;
+    	long totalBytes = 0;
+    	for (String fileName : fileNames) {
+    		totalBytes += new File(fileName).length();
+    	}
+    	System.out.printf("Indexed %d files with %d thread(s) in %d ms (%.1f MB/s).\n", fileNames.length, threads, elapsed / 1000000,
+    			totalBytes / 1048576.0 / Math.max(elapsed / 1e9, 1e-9));
+    	if (Metrics.ENABLED) {
+    		for (Metrics.FileStats file : Metrics.files()) {
+    			System.out.printf("  %s: %d tokens in %.1f ms (%.0f tokens/s)\n", file.fileName, file.tokens, file.nanos / 1e6, file.tokensPerSecond());
+    		}
+    	}
+    	
+    	// report the index size
+    	long indexBytes = index.estimatedBytes();
+    	System.out.printf("Positional index holds %d terms and %d postings in approximately %d KB of position data.\n", index.termCount(), index.postingsCount(), indexBytes / 1024);
+    	if (Metrics.ENABLED) {
+    		Metrics.indexSize(index.termCount(), index.postingsCount(), indexBytes);
+    	}
+    	return index;
+    }
+    
+    // opens the index written to path by the index command, or builds one if path holds the corpus
+    public static PositionalIndex openIndex(String path, int threads) throws IOException {
+        File dir = new File(path);
+        if (new File(dir, MappedIndex.TERMS_FILE).isFile() || IndexManifest.exists(dir)) {
+            return openWrittenIndex(dir);
+        }
+        return buildIndex(path, threads);
+    }
+    
+    // opens the index written by the index command, or the segments kept by the update command
+    public static PositionalIndex openWrittenIndex(File dir) throws IOException {
+        long startTime = System.nanoTime();
+        PositionalIndex index = IndexManifest.exists(dir) ? SegmentedIndex.open(dir) : MappedIndex.open(dir);
+        System.out.printf("Opened index of %d files and %d terms in %d ms.\n", index.fileCount(), index.termCount(), (System.nanoTime() - startTime) / 1000000);
+        if (Metrics.ENABLED) {
+            Metrics.indexSize(index.termCount(), index.postingsCount(), index.estimatedBytes());
+        }
+        return index;
+    }
+    
+    // writes the metrics as JSON if the file name ends in .json, else as Prometheus text
+    private static void writeMetrics(File file) {
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            out.print(file.getName().endsWith(".json") ? Metrics.json() : Metrics.prometheus());
+        }
+        catch (IOException ex) {
+            System.err.println("Could not write metrics to " + file + ": " + ex.getMessage());
+        }
+    }
+    
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Incorrect usage. Program terminated");
+        System.err.println("Every command accepts --metrics FILE to write timing and size metrics (Prometheus text, or JSON for *.json) on exit");
+        System.err.println("Correct usage: java positionalindex.Problem2 [--threads N] [--top K] <path-to-input-files> <outfile-for-words>");
+        System.err.println("               java positionalindex.Problem2 [--threads N] --queries FILE --out FILE [--workers N] [--cache MB] <path-to-input-files> <outfile-for-words>");
+        System.err.println("               java positionalindex.Problem2 index [--threads N | --memory MB] <path-to-input-files> <index-directory>");
+        System.err.println("               java positionalindex.Problem2 update [--threads N] <path-to-input-files> <index-directory>");
+        System.err.println("               java positionalindex.Problem2 query [--top K] <index-directory>");
+        System.err.println("               java positionalindex.Problem2 query --queries FILE --out FILE [--workers N] [--cache MB] <index-directory>");
+        System.err.println("               java positionalindex.Problem2 serve [--threads N] [--port P] [--workers N] [--cache MB] <index-directory-or-input-files>");
+        System.err.println("               java positionalindex.Problem2 shards [--shards N] <path-to-input-files>");
+        System.err.println("               java positionalindex.Problem2 shards --connect host:port[,host:port...]");
+        System.err.println("               java positionalindex.Problem2 shard --shard I --shards N [--port P] [--workers N] <path-to-input-files>");
+        System.exit(1);
+    }
+    
+	public static void main(String[] args){
+
+        // number of indexing threads, 1 keeps the original sequential indexing
+        int threads = 1;
+        
+        // port and number of query threads of the serve command
+        int port = 8080;
+        int workers = Runtime.getRuntime().availableProcessors();
+        
+        // query cache size of the serve command in megabytes, 0 disables it
+        int cacheMegabytes = 64;
+        
+        // number of shards, the shard served by the shard command and the shard servers to query
+        int shardCount = 2;
+        int shardNumber = -1;
+        String connect = null;
+        
+        // number of best ranked files printed per query, 0 prints every match in file order
+        int top = 10;
+        
+        // memory budget of one block of the index command in megabytes, 0 indexes the whole corpus in memory
+        int memoryMegabytes = 0;
+        
+        // file the metrics are written to when the program ends, null leaves them disabled
+        String metricsFile = null;
+        
+        // query file answered in one batch and the file its results are written to, null reads queries interactively
+        String queriesFile = null;
+        String outFile = null;
+        
+        // separate the options from the positional arguments
+        ArrayList<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("--workers") && i + 1 < args.length) {
+                workers = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("--cache") && i + 1 < args.length) {
+                cacheMegabytes = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("--metrics") && i + 1 < args.length) {
+                metricsFile = args[++i];
+            }
+            else if (args[i].equals("--memory") && i + 1 < args.length) {
+                memoryMegabytes = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("--top") && i + 1 < args.length) {
+                top = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("--shards") && i + 1 < args.length) {
+                shardCount = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("--shard") && i + 1 < args.length) {
+                shardNumber = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("--connect") && i + 1 < args.length) {
+                connect = args[++i];
+            }
+            else if (args[i].equals("--queries") && i + 1 < args.length) {
+                queriesFile = args[++i];
+            }
+            else if (args[i].equals("--out") && i + 1 < args.length) {
+                outFile = args[++i];
+            }
+            else {
+                positional.add(args[i]);
+            }
+        }
+        if (threads < 1 || workers < 1) {
+            usage("Number of threads must be at least 1");
+        }
+        if (metricsFile != null) {
+            // must be set before Metrics is first used, it fixes Metrics.ENABLED
+            System.setProperty("positionalindex.metrics", "true");
+            final File out = new File(metricsFile);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> writeMetrics(out)));
+        }
+        if (top < 0) {
+            usage("--top must not be negative");
+        }
+        if (shardCount < 1) {
+            usage("Number of shards must be at least 1");
+        }
+        if ((queriesFile == null) != (outFile == null)) {
+            usage("--queries and --out must be given together");
+        }
+        
+        // the first argument may select a subcommand
+        String mode = positional.size() > 0 ? positional.get(0) : "";
+        if (queriesFile != null && (mode.equals("index") || mode.equals("update") || mode.equals("serve") || mode.equals("shards") || mode.equals("shard"))) {
+            usage("--queries and --out only work with the query command and the default command");
+        }
+        
+        PositionalIndex index = null;
+        try {
+            if (mode.equals("index")) {
+                // build the index from the corpus and write it to disk
+                if (positional.size() != 3) {
+                    usage("The index command takes 2 arguments, you have given " + (positional.size() - 1));
+                }
+                if (memoryMegabytes > 0) {
+                    // index in blocks that fit the memory budget and merge them on disk
+                    String[] fileNames = sortedFileNames(positional.get(1));
+                    long startTime = System.nanoTime();
+                    int runs = BlockIndexer.write(fileNames, new File(positional.get(2)), memoryMegabytes * 1048576L);
+                    System.out.printf("Indexed %d files in %d block(s) of at most %d MB and wrote the index to %s in %d ms.\n",
+                            fileNames.length, runs, memoryMegabytes, positional.get(2), (System.nanoTime() - startTime) / 1000000);
+                    return;
+                }
+                MemoryIndex built = buildIndex(positional.get(1), threads);
+                long startTime = System.nanoTime();
+                DiskIndexWriter.write(built, new File(positional.get(2)));
+                System.out.printf("Wrote index to %s in %d ms.\n", positional.get(2), (System.nanoTime() - startTime) / 1000000);
+                return;
+            }
+            else if (mode.equals("query")) {
+                // open a previously written index without re-parsing the corpus
+                if (positional.size() != 2) {
+                    usage("The query command takes 1 argument, you have given " + (positional.size() - 1));
+                }
+                index = openWrittenIndex(new File(positional.get(1)));
+            }
+            else if (mode.equals("update")) {
+                // index only new and changed files into a new segment, then merge segments
+                if (positional.size() != 3) {
+                    usage("The update command takes 2 arguments, you have given " + (positional.size() - 1));
+                }
+                long startTime = System.nanoTime();
+                try (IncrementalIndexer indexer = IncrementalIndexer.open(new File(positional.get(2)), new MergePolicy())) {
+                    IncrementalIndexer.Result result = indexer.update(new File(positional.get(1)), threads);
+                    System.out.printf("Added %d, re-indexed %d and deleted %d files in %d ms.\n", result.added, result.changed, result.deleted, (System.nanoTime() - startTime) / 1000000);
+                    try {
+                        indexer.mergeInBackground().get();
+                    }
+                    catch (ExecutionException ex) {
+                        System.err.println("Merging segments failed: " + ex.getCause().getMessage() + ". Program terminated.\n");
+                        System.exit(1);
+                    }
+                    System.out.printf("Index generation %d has %d segment(s).\n", indexer.generation(), indexer.segmentCount());
+                }
+                return;
+            }
+            else if (mode.equals("serve")) {
+                // load the index once and answer queries over HTTP until the process is stopped
+                if (positional.size() != 2) {
+                    usage("The serve command takes 1 argument, you have given " + (positional.size() - 1));
+                }
+                index = openIndex(positional.get(1), threads);
+                QueryCache cache = cacheMegabytes > 0 ? new QueryCache(cacheMegabytes * 1048576L) : null;
+                // read once per JVM by the HTTP server, see QueryServer
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+                final QueryServer server = new QueryServer(index, port, workers, cache);
+                if (IndexManifest.exists(new File(positional.get(1)))) {
+                    // pick up the segments written by later update commands
+                    server.watch(new File(positional.get(1)), 5);
+                }
+                server.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+                System.out.printf("Serving queries on http://127.0.0.1:%d/query?q=... with %d worker threads.\n", server.port(), workers);
+                return;
+            }
+            else if (mode.equals("shards")) {
+                // split the corpus into shards and send every query to all of them
+                List<Shard> shards = new ArrayList<>();
+                if (connect != null) {
+                    if (positional.size() != 1) {
+                        usage("The shards command takes no arguments with --connect, you have given " + (positional.size() - 1));
+                    }
+                    for (String address : connect.split(",")) {
+                        int colon = address.lastIndexOf(':');
+                        shards.add(new RemoteShard(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1))));
+                    }
+                }
+                else {
+                    if (positional.size() != 2) {
+                        usage("The shards command takes 1 argument, you have given " + (positional.size() - 1));
+                    }
+                    String[] fileNames = sortedFileNames(positional.get(1));
+                    long startTime = System.nanoTime();
+                    shards.addAll(ShardedSearcher.buildLocalShards(fileNames, shardCount));
+                    System.out.printf("Indexed %d files into %d shard(s) in %d ms.\n", fileNames.length, shardCount, (System.nanoTime() - startTime) / 1000000);
+                }
+                try (ShardedSearcher searcher = new ShardedSearcher(shards)) {
+                    System.out.printf("Searching %d files in %d shard(s).\n", searcher.fileCount(), shards.size());
+                    queryLoop(searcher);
+                }
+                return;
+            }
+            else if (mode.equals("shard")) {
+                // index one shard of the corpus and answer the queries of a shards --connect process
+                if (positional.size() != 2) {
+                    usage("The shard command takes 1 argument, you have given " + (positional.size() - 1));
+                }
+                if (shardNumber < 0 || shardNumber >= shardCount) {
+                    usage("--shard must be between 0 and " + (shardCount - 1));
+                }
+                String[] fileNames = sortedFileNames(positional.get(1));
+                int[] range = ShardedSearcher.range(fileNames.length, shardNumber, shardCount);
+                LocalShard shard = ShardedSearcher.buildShard(fileNames, range[0], range[1]);
+                ShardServer server = new ShardServer(shard, port, workers);
+                System.out.printf("Serving shard %d of %d (files %d to %d) on 127.0.0.1:%d.\n", shardNumber, shardCount, range[0] + 1, range[1], server.port());
+                server.serve();
+                return;
+            }
+            else {
+                // did the user provide correct number of command line arguments?
+                // if not, print message and exit
+                if (positional.size() != 2) {
+                    usage("Number of command line arguments must be 2\nYou have given " + positional.size() + " command line arguments");
+                }
+                // extract input file name from command line arguments
+                // this is the name of the file from the Gutenberg corpus
+                index = buildIndex(positional.get(0), threads);
+            }
+        }
+        catch (IOException ex) {
+            System.err.println(ex.getMessage() + ". Program terminated.\n");
+            System.exit(1);
+        }
+        catch (InterruptedException ex) {
+            System.err.println("Interrupted while merging segments. Program terminated.\n");
+            System.exit(1);
+        }
+        
+        if (queriesFile != null) {
+            // answer the whole query file and exit instead of reading queries from the console
+            try {
+                long startTime = System.nanoTime();
+                BatchQueries batch = new BatchQueries(index, cacheMegabytes * 1048576L);
+                BatchQueries.Result result = batch.run(new File(queriesFile), new File(outFile), workers);
+                System.out.printf("Answered %d queries in %d group(s) with %d thread(s) in %d ms, decoded %d position lists and reused %d. Results written to %s.\n",
+                        result.queries, result.groups, workers, (System.nanoTime() - startTime) / 1000000, result.decoded, result.reused, outFile);
+            }
+            catch (IOException ex) {
+                System.err.println(ex.getMessage() + ". Program terminated.\n");
+                System.exit(1);
+            }
+            return;
+        }
+        
+        queryLoop(index, top);
+	} // main()
+	
+	// answers proximity queries typed by the user until they decline to continue
+	// prints the best top files by score, or every match in file order when top is 0
+	public static void queryLoop(PositionalIndex index, int top) {
+        // evaluates the whole chain at once and reuses its buffers across queries
+        queryLoop(top > 0 ? new RankedQueryEngine(index, top) : new QueryEngine(index));
+	}
+	
+	// answers proximity queries with the given searcher until the user declines to continue
+	public static void queryLoop(Searcher searcher) {
+        
+        // try writing for testing cases and error checking
+        /* Testing input values for the positional index, below in the user interface there are comments for testing
+        PrintWriter indexWriter = null;
+        PrintWriter outWriter = null;
+        
+        try { // open file and catch error
+			indexWriter = new PrintWriter("positionalIndexes.txt");
+			outWriter = new PrintWriter("codeOuput.txt");
+		} catch (FileNotFoundException e) {
+			System.err.println("File: positionalIndexes.txt not found");
+			System.exit(1);
+		}
+        
+        for (int t = 0; t < positionalIndex.termCount(); t++) {
+        	for (int i = 1; i <= index.fileCount(); i++) {
+        		indexWriter.printf("File Num: %-5d, Word: %-10s, Index List: ", i, positionalIndex.dictionary().term(t));
+        		indexWriter.print(positionalIndex.postings(t).find(i) + "\n");
+        	}
+        }
+        */
+        
+        
+        // start of user input and proximity query parsing 
+        Scanner userIn = new Scanner(System.in);
+        boolean end = false;
+        String user, userExit;
+        ProximityQuery query;
+        List<QueryEngine.Match> matches;
+        
+        while (end != true) {
+        	System.out.println("Please enter strings separated by an integer of the maximum distance between words:");
+            System.out.println("For example: united 0 states 2 engaged");
+            
+            if (!userIn.hasNextLine()) { // end of input
+            	break;
+            }
+            user = userIn.nextLine();
+            
+            try {
+            	query = ProximityQuery.parse(user);
+            }
+            catch (IllegalArgumentException ex) {
+            	System.out.println(ex.getMessage() + "\n");
+            	continue;
+            }
+            
+            // only files containing every word of the chain have their positions checked
+            System.out.printf("Started searching for: %s\n", query);
+            try {
+            	matches = searcher.execute(query);
+            }
+            catch (IOException ex) {
+            	System.out.println("Search failed: " + ex.getMessage() + "\n");
+            	continue;
+            }
+            for (QueryEngine.Match match : matches) {
+            	if (match instanceof RankedQueryEngine.Hit) {
+            		System.out.printf("Score: %-8.3f ", ((RankedQueryEngine.Hit) match).score);
+            	}
+            	System.out.printf("For file number: %-3d The indexes of %s are: ", match.fileNum, query);
+            	System.out.print(Arrays.toString(match.positions) + "\n");
+            	//outWriter.printf("For file number: %-3d The indexes of %s are: ", match.fileNum, query);
+            	//outWriter.print(Arrays.toString(match.positions) + "\n\n");
+            }
+            System.out.print("\n");
+            System.out.print("Would you like to test another proximity query? Y/N ");
+            userExit = userIn.hasNextLine() ? userIn.nextLine().trim() : "N";
+            if (!userExit.equalsIgnoreCase("Y")) {
+            	end = true;
+            	System.out.println("\nExiting system.");
+            }
+        }
+        
+    	
+        // close input reader
+        userIn.close();
+        // close the writer for testing cases
+        //indexWriter.close();
+        //outWriter.close();
+        
+	} // queryLoop()
+} // class
+
+/**
+ * 
+ * Testing input of more than one query below
+
+Input files directory path name is: C:\Users\Evan\Desktop\CSCI4130\EclipseStuff\AssignmentTwo\src\Good
+Start parsing words.
+Stop parsing words.
+Please enter strings separated by an integer of the maximum distance between words:
+For example: united 0 states 2 engaged
+united 1 states 5 then
+Started searching for words: united, states. With maximum distace of: 1 
+For file number: 17  The indexes for words united and states, with 1 max spaces inbetween are: [4781]
+For file number: 31  The indexes for words united and states, with 1 max spaces inbetween are: [4432]
+For file number: 37  The indexes for words united and states, with 1 max spaces inbetween are: [20]
+For file number: 42  The indexes for words united and states, with 1 max spaces inbetween are: [8299]
+For file number: 51  The indexes for words united and states, with 1 max spaces inbetween are: [34, 46, 698]
+For file number: 84  The indexes for words united and states, with 1 max spaces inbetween are: [18]
+For file number: 100 The indexes for words united and states, with 1 max spaces inbetween are: [7878]
+For file number: 109 The indexes for words united and states, with 1 max spaces inbetween are: [3298]
+For file number: 116 The indexes for words united and states, with 1 max spaces inbetween are: [50]
+For file number: 209 The indexes for words united and states, with 1 max spaces inbetween are: [5566]
+For file number: 240 The indexes for words united and states, with 1 max spaces inbetween are: [703, 9993]
+For file number: 244 The indexes for words united and states, with 1 max spaces inbetween are: [24, 42, 62, 80, 96]
+For file number: 253 The indexes for words united and states, with 1 max spaces inbetween are: [842]
+For file number: 256 The indexes for words united and states, with 1 max spaces inbetween are: [445]
+For file number: 257 The indexes for words united and states, with 1 max spaces inbetween are: [425]
+For file number: 259 The indexes for words united and states, with 1 max spaces inbetween are: [341]
+For file number: 260 The indexes for words united and states, with 1 max spaces inbetween are: [40, 797]
+For file number: 262 The indexes for words united and states, with 1 max spaces inbetween are: [789, 1528]
+For file number: 263 The indexes for words united and states, with 1 max spaces inbetween are: [823]
+For file number: 264 The indexes for words united and states, with 1 max spaces inbetween are: [865]
+For file number: 269 The indexes for words united and states, with 1 max spaces inbetween are: [38, 860]
+For file number: 273 The indexes for words united and states, with 1 max spaces inbetween are: [91, 702]
+For file number: 277 The indexes for words united and states, with 1 max spaces inbetween are: [521]
+For file number: 278 The indexes for words united and states, with 1 max spaces inbetween are: [843]
+For file number: 280 The indexes for words united and states, with 1 max spaces inbetween are: [340]
+For file number: 281 The indexes for words united and states, with 1 max spaces inbetween are: [668]
+For file number: 282 The indexes for words united and states, with 1 max spaces inbetween are: [696]
+For file number: 283 The indexes for words united and states, with 1 max spaces inbetween are: [718]
+For file number: 284 The indexes for words united and states, with 1 max spaces inbetween are: [866]
+For file number: 285 The indexes for words united and states, with 1 max spaces inbetween are: [818]
+For file number: 286 The indexes for words united and states, with 1 max spaces inbetween are: [880]
+For file number: 287 The indexes for words united and states, with 1 max spaces inbetween are: [883]
+For file number: 288 The indexes for words united and states, with 1 max spaces inbetween are: [740]
+For file number: 289 The indexes for words united and states, with 1 max spaces inbetween are: [865]
+For file number: 290 The indexes for words united and states, with 1 max spaces inbetween are: [832]
+For file number: 292 The indexes for words united and states, with 1 max spaces inbetween are: [707, 4307, 8247]
+For file number: 293 The indexes for words united and states, with 1 max spaces inbetween are: [473]
+For file number: 297 The indexes for words united and states, with 1 max spaces inbetween are: [381]
+For file number: 298 The indexes for words united and states, with 1 max spaces inbetween are: [782]
+For file number: 299 The indexes for words united and states, with 1 max spaces inbetween are: [817]
+For file number: 300 The indexes for words united and states, with 1 max spaces inbetween are: [429]
+For file number: 301 The indexes for words united and states, with 1 max spaces inbetween are: [436]
+For file number: 302 The indexes for words united and states, with 1 max spaces inbetween are: [780]
+For file number: 303 The indexes for words united and states, with 1 max spaces inbetween are: [63, 702]
+For file number: 304 The indexes for words united and states, with 1 max spaces inbetween are: [877]
+For file number: 305 The indexes for words united and states, with 1 max spaces inbetween are: [832]
+For file number: 306 The indexes for words united and states, with 1 max spaces inbetween are: [911]
+For file number: 307 The indexes for words united and states, with 1 max spaces inbetween are: [742]
+For file number: 309 The indexes for words united and states, with 1 max spaces inbetween are: [415]
+For file number: 310 The indexes for words united and states, with 1 max spaces inbetween are: [803]
+For file number: 311 The indexes for words united and states, with 1 max spaces inbetween are: [383]
+For file number: 312 The indexes for words united and states, with 1 max spaces inbetween are: [802]
+For file number: 313 The indexes for words united and states, with 1 max spaces inbetween are: [737]
+For file number: 314 The indexes for words united and states, with 1 max spaces inbetween are: [392]
+For file number: 315 The indexes for words united and states, with 1 max spaces inbetween are: [350]
+For file number: 316 The indexes for words united and states, with 1 max spaces inbetween are: [857]
+For file number: 317 The indexes for words united and states, with 1 max spaces inbetween are: [820]
+For file number: 321 The indexes for words united and states, with 1 max spaces inbetween are: [855]
+For file number: 322 The indexes for words united and states, with 1 max spaces inbetween are: [958]
+For file number: 323 The indexes for words united and states, with 1 max spaces inbetween are: [430]
+For file number: 325 The indexes for words united and states, with 1 max spaces inbetween are: [378]
+For file number: 327 The indexes for words united and states, with 1 max spaces inbetween are: [849]
+For file number: 328 The indexes for words united and states, with 1 max spaces inbetween are: [855]
+For file number: 330 The indexes for words united and states, with 1 max spaces inbetween are: [935]
+For file number: 332 The indexes for words united and states, with 1 max spaces inbetween are: [373]
+For file number: 333 The indexes for words united and states, with 1 max spaces inbetween are: [816]
+For file number: 334 The indexes for words united and states, with 1 max spaces inbetween are: [412]
+For file number: 335 The indexes for words united and states, with 1 max spaces inbetween are: [778]
+For file number: 336 The indexes for words united and states, with 1 max spaces inbetween are: [725]
+For file number: 338 The indexes for words united and states, with 1 max spaces inbetween are: [861]
+For file number: 340 The indexes for words united and states, with 1 max spaces inbetween are: [808]
+For file number: 341 The indexes for words united and states, with 1 max spaces inbetween are: [873]
+For file number: 342 The indexes for words united and states, with 1 max spaces inbetween are: [396]
+For file number: 343 The indexes for words united and states, with 1 max spaces inbetween are: [823]
+For file number: 345 The indexes for words united and states, with 1 max spaces inbetween are: [775]
+For file number: 387 The indexes for words united and states, with 1 max spaces inbetween are: [5402]
+For file number: 392 The indexes for words united and states, with 1 max spaces inbetween are: [48]
+For file number: 413 The indexes for words united and states, with 1 max spaces inbetween are: [32, 35, 76]
+For file number: 429 The indexes for words united and states, with 1 max spaces inbetween are: [7971]
+For file number: 450 The indexes for words united and states, with 1 max spaces inbetween are: [25]
+For file number: 458 The indexes for words united and states, with 1 max spaces inbetween are: [1578]
+
+Started searching for words: states, then. With maximum distace of: 5 
+For file number: 33  The indexes for words states and then, with 5 max spaces inbetween are: [154]
+For file number: 36  The indexes for words states and then, with 5 max spaces inbetween are: [207]
+For file number: 63  The indexes for words states and then, with 5 max spaces inbetween are: [286, 927]
+For file number: 73  The indexes for words states and then, with 5 max spaces inbetween are: [1079]
+For file number: 113 The indexes for words states and then, with 5 max spaces inbetween are: [1906]
+For file number: 120 The indexes for words states and then, with 5 max spaces inbetween are: [327]
+For file number: 131 The indexes for words states and then, with 5 max spaces inbetween are: [4233]
+For file number: 142 The indexes for words states and then, with 5 max spaces inbetween are: [3011]
+For file number: 157 The indexes for words states and then, with 5 max spaces inbetween are: [441, 3213]
+For file number: 164 The indexes for words states and then, with 5 max spaces inbetween are: [1150, 1162, 1472, 2507, 2527, 2885, 2970, 3011]
+For file number: 168 The indexes for words states and then, with 5 max spaces inbetween are: [307]
+For file number: 261 The indexes for words states and then, with 5 max spaces inbetween are: [5894]
+For file number: 271 The indexes for words states and then, with 5 max spaces inbetween are: [155, 374, 386, 400, 408, 671, 695, 709, 735, 752, 763, 797, 813, 830, 965, 968, 1112, 1176, 1325, 1354, 1365, 1373, 1389, 1404, 1421, 1528, 1600, 1664, 1814, 1843, 1854, 1862, 1878, 1893, 1910, 2017, 2089, 2153]
+For file number: 276 The indexes for words states and then, with 5 max spaces inbetween are: [310]
+For file number: 339 The indexes for words states and then, with 5 max spaces inbetween are: [3225]
+For file number: 354 The indexes for words states and then, with 5 max spaces inbetween are: [1435]
+For file number: 358 The indexes for words states and then, with 5 max spaces inbetween are: [1234]
+For file number: 361 The indexes for words states and then, with 5 max spaces inbetween are: [158, 459, 527]
+For file number: 380 The indexes for words states and then, with 5 max spaces inbetween are: [1246, 1704, 1992]
+For file number: 386 The indexes for words states and then, with 5 max spaces inbetween are: [459, 922, 1308]
+For file number: 446 The indexes for words states and then, with 5 max spaces inbetween are: [1409]
+
+Would you like to test another proximity query? Y/N N
+
+Exiting system.
+
+
+ * 
+ */
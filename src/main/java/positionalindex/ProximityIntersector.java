@@ -0,0 +1,135 @@
+/*
+    Proximity intersection of two sorted position arrays.
+
+    A position p of the first word matches when the second word occurs at
+    some position q with 0 < |p - q| <= window + 1, i.e. with at most
+    window words in between, before or after p. The second list is walked
+    with a cursor that only moves forward; to reach the first candidate
+    for the next p it gallops (exponential then binary search) instead of
+    stepping one position at a time, which gives skip-pointer behaviour
+    without building any skip structure. The input arrays are never
+    modified and matches are written into a caller supplied IntList.
+
+    When the JVM runs with --add-modules jdk.incubator.vector, lists of
+    similar density are intersected by the SIMD kernel in VectorIntersector
+    instead; a skewed pair is still galloped, which skips more than a block
+    compare can, and so are short lists, where setting up the masks costs
+    more than the few compares it saves. -Dpositionalindex.simd=false keeps
+    the scalar kernels.
+
+    An instance keeps decode buffers for PositionLists so repeated queries
+    reuse the same arrays; instances are not thread-safe, use one per thread.
+*/
+
+package positionalindex;
+
+public class ProximityIntersector {
+
+    // true when the vector kernels are available and wide enough to pay off
+    static final boolean VECTORIZED = vectorSupport();
+
+    // the vector kernels are used while one list is at most this many times longer than the other
+    static final int VECTOR_DENSITY = 4;
+
+    // and only when the shorter list has at least this many values; below that the scalar kernels measured faster
+    static final int VECTOR_MIN_LENGTH = 8;
+
+    // decoded positions of the two words
+    private final IntList first = new IntList(1024);
+    private final IntList second = new IntList(1024);
+
+    // matches of the last call
+    private final IntList answer = new IntList(64);
+
+    // intersects two compressed position lists, returns a buffer that is reused by the next call
+    public IntList intersect(PositionList word1, PositionList word2, int window) {
+        answer.clear();
+        if (word1 == null || word2 == null) {
+            return answer;
+        }
+        int n1 = word1.decodeInto(first.reserve(word1.size()));
+        int n2 = word2.decodeInto(second.reserve(word2.size()));
+        intersect(first.array(), n1, second.array(), n2, window, answer);
+        return answer;
+    }
+
+    // appends to answer every position of p1 that has a position of p2 within window words
+    public static void intersect(int[] p1, int n1, int[] p2, int n2, int window, IntList answer) {
+        if (VECTORIZED && Math.min(n1, n2) >= VECTOR_MIN_LENGTH && n2 <= VECTOR_DENSITY * n1 && n1 <= VECTOR_DENSITY * n2) {
+            VectorIntersector.intersect(p1, n1, p2, n2, window, answer);
+        }
+        else {
+            intersectScalar(p1, n1, p2, n2, window, answer);
+        }
+    }
+
+    // the scalar kernel of intersect, galloping through the second list
+    public static void intersectScalar(int[] p1, int n1, int[] p2, int n2, int window, IntList answer) {
+        // in long, a window near Integer.MAX_VALUE must not wrap around
+        long reach = window + 1L;
+        int i = 0, j = 0, skips = 0;
+        for (; i < n1 && j < n2; i++) {
+            int p = p1[i];
+            // skip the positions of the second word that are too far before p
+            if (p2[j] < p - reach) {
+                skips++;
+                j = gallop(p2, j, n2, (int) (p - reach));
+                if (j == n2) {
+                    break;
+                }
+            }
+            // p2[j] is the first candidate, a match needs one candidate within p + reach
+            int q = p2[j];
+            if (q == p && j + 1 < n2) { // the same position never counts as a match
+                q = p2[j + 1];
+            }
+            if (q != p && q <= p + reach) {
+                answer.add(p);
+            }
+        }
+        if (Metrics.ENABLED) {
+            // entries of the first list visited and of the second list galloped to
+            Metrics.positionsIntersected(i + skips, skips);
+        }
+    }
+
+    // checks for jdk.incubator.vector before VectorIntersector is loaded
+    private static boolean vectorSupport() {
+        if (!Boolean.parseBoolean(System.getProperty("positionalindex.simd", "true"))
+                || !ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            return false;
+        }
+        try {
+            // without SIMD registers the species has a single lane
+            return VectorIntersector.lanes() >= 4;
+        }
+        catch (LinkageError ex) {
+            return false;
+        }
+    }
+
+    // returns the first index >= from with a[index] >= target, or n if there is none
+    public static int gallop(int[] a, int from, int n, int target) {
+        // exponential search for a bound, then binary search inside it
+        int step = 1;
+        int low = from, high = from + 1;
+        while (high < n && a[high] < target) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        if (high > n) {
+            high = n;
+        }
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (a[mid] < target) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+    A parsed proximity query: a chain of terms where every pair of
+    neighbouring terms has a maximum number of words allowed between
+    them, e.g. "united 0 states 2 engaged" is the chain
+    united -(0)- states -(2)- engaged.
+*/
+
+package positionalindex;
+
+import java.util.Arrays;
+
+public class ProximityQuery {
+
+    private final String[] terms;
+
+    // gaps[i] is the maximum distance between terms[i] and terms[i + 1]
+    private final int[] gaps;
+
+    public ProximityQuery(String[] terms, int[] gaps) {
+        if (terms.length == 0 || gaps.length != terms.length - 1) {
+            throw new IllegalArgumentException("A query needs one distance between every two words");
+        }
+        this.terms = terms;
+        this.gaps = gaps;
+    }
+
+    // parses alternating words and distances separated by whitespace
+    public static ProximityQuery parse(String line) {
+        String[] words = line.trim().split("\\s+");
+        if (words.length % 2 == 0 || words[0].isEmpty()) {
+            throw new IllegalArgumentException("Expected words separated by distances, for example: united 0 states 2 engaged");
+        }
+        String[] terms = new String[words.length / 2 + 1];
+        int[] gaps = new int[words.length / 2];
+        for (int i = 0; i < words.length; i++) {
+            if (i % 2 == 0) {
+                terms[i / 2] = words[i].toLowerCase();
+            }
+            else {
+                try {
+                    gaps[i / 2] = Integer.parseInt(words[i]);
+                }
+                catch (NumberFormatException ex) {
+                    throw new IllegalArgumentException("Expected a distance but found: " + words[i]);
+                }
+                if (gaps[i / 2] < 0) {
+                    throw new IllegalArgumentException("Distances cannot be negative: " + words[i]);
+                }
+            }
+        }
+        return new ProximityQuery(terms, gaps);
+    }
+
+    // number of terms in the chain
+    public int size() {
+        return terms.length;
+    }
+
+    public String term(int i) {
+        return terms[i];
+    }
+
+    // maximum distance between term(i) and term(i + 1)
+    public int gap(int i) {
+        return gaps[i];
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof ProximityQuery)) {
+            return false;
+        }
+        ProximityQuery query = (ProximityQuery) other;
+        return Arrays.equals(terms, query.terms) && Arrays.equals(gaps, query.gaps);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(terms) + Arrays.hashCode(gaps);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(terms[0]);
+        for (int i = 0; i < gaps.length; i++) {
+            sb.append(' ').append(gaps[i]).append(' ').append(terms[i + 1]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+    Caches for repeated query traffic, shared by all QueryEngines of a
+    process:
+
+    results  the matches of a whole query, keyed on the normalized chain
+             (lowercase terms and distances, as printed by ProximityQuery)
+    files    the intersected file list of a set of terms, so chains that
+             share their words, e.g. "united 1 states" and
+             "states 3 united", only intersect the file lists once
+
+    Both are weight-bounded LRU caches. Every entry belongs to the index
+    generation it was computed on; when a query arrives for a newer
+    generation, e.g. after the server reopened an updated segmented index,
+    both caches are cleared first. Queries still running on an older
+    snapshot neither read nor store entries, so they can never hand file
+    numbers of one generation to a query on another.
+*/
+
+package positionalindex;
+
+import java.util.List;
+
+public class QueryCache {
+
+    // fixed cost charged per entry for the key, map node and list objects
+    private static final long ENTRY_OVERHEAD = 96;
+
+    private final LruCache<ProximityQuery, List<QueryEngine.Match>> results;
+    private final LruCache<String, int[]> files;
+
+    // generation of the index the cached entries were computed on
+    private long generation = Long.MIN_VALUE;
+
+    // budget in bytes, split between query results and file lists
+    public QueryCache(long maxBytes) {
+        results = new LruCache<>(maxBytes * 3 / 4, QueryCache::weigh);
+        files = new LruCache<>(maxBytes / 4, list -> ENTRY_OVERHEAD + 4L * list.length);
+    }
+
+    // clears both caches if the index generation is newer than the cached entries
+    public synchronized void checkGeneration(long indexGeneration) {
+        if (indexGeneration > generation) {
+            results.clear();
+            files.clear();
+            generation = indexGeneration;
+        }
+    }
+
+    // cached matches of the query computed on the given generation, or null;
+    // the lists are shared, do not modify them
+    public synchronized List<QueryEngine.Match> getResult(ProximityQuery query, long indexGeneration) {
+        return indexGeneration == generation ? results.get(query) : null;
+    }
+
+    // caches matches computed on the given index generation, unless the generation changed meanwhile
+    public synchronized void putResult(ProximityQuery query, long indexGeneration, List<QueryEngine.Match> matches) {
+        if (indexGeneration == generation) {
+            results.put(query, matches);
+        }
+    }
+
+    // cached files containing every term of the key on the given generation, or null
+    public synchronized int[] getFiles(String termSet, long indexGeneration) {
+        return indexGeneration == generation ? files.get(termSet) : null;
+    }
+
+    public synchronized void putFiles(String termSet, long indexGeneration, int[] fileNums) {
+        if (indexGeneration == generation) {
+            files.put(termSet, fileNums);
+        }
+    }
+
+    // hit, miss and eviction counters of both caches
+    public String stats() {
+        return String.format("results: %d entries, %d bytes, %d hits, %d misses, %d evictions%n"
+                + "files: %d entries, %d bytes, %d hits, %d misses, %d evictions%n",
+                results.size(), results.weight(), results.hits(), results.misses(), results.evictions(),
+                files.size(), files.weight(), files.hits(), files.misses(), files.evictions());
+    }
+
+    public LruCache<ProximityQuery, List<QueryEngine.Match>> results() {
+        return results;
+    }
+
+    public LruCache<String, int[]> files() {
+        return files;
+    }
+
+    private static long weigh(List<QueryEngine.Match> matches) {
+        long weight = ENTRY_OVERHEAD;
+        for (QueryEngine.Match match : matches) {
+            weight += 32 + 4L * match.positions.length;
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+    Evaluates a ProximityQuery as a single chain over a PositionalIndex.
+
+    The file lists of the terms are intersected first, starting with the
+    term that occurs in the fewest files and galloping through the longer
+    lists, so positions are only decoded in files that contain every term
+    of the chain. In such a file the chain is checked from its last term
+    back to its first: the positions of each term are reduced to those with
+    a surviving position of the next term within the allowed distance
+    (either direction, as in intersectWithSkips). What is left of the first
+    term are the positions where a complete chain starts.
+
+    With a QueryCache, whole results and the file lists of term sets are
+    looked up before any work is done.
+
+    An engine reuses its buffers between queries and is not thread-safe;
+    use one engine per thread over a shared index and cache.
+*/
+
+package positionalindex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+
+public class QueryEngine implements Searcher {
+
+    // positions of the first term that start a chain in one file
+    public static class Match {
+        public final int fileNum;
+        public final int[] positions;
+
+        public Match(int fileNum, int[] positions) {
+            this.fileNum = fileNum;
+            this.positions = positions;
+        }
+    }
+
+    private final PositionalIndex index;
+
+    // shared result cache, or null
+    private final QueryCache cache;
+
+    // candidate files and scratch space for the file intersection
+    private final IntList candidates = new IntList(256);
+    private final IntList scratch = new IntList(256);
+
+    // decoded positions of the current term and the surviving positions
+    private final IntList decoded = new IntList(1024);
+    private IntList survivors = new IntList(1024);
+    private IntList next = new IntList(1024);
+
+    public QueryEngine(PositionalIndex index) {
+        this(index, null);
+    }
+
+    public QueryEngine(PositionalIndex index, QueryCache cache) {
+        this.index = index;
+        this.cache = cache;
+    }
+
+    public PositionalIndex index() {
+        return index;
+    }
+
+    // returns the matches of the query in increasing file number order
+    // results served from the cache are shared and must not be modified
+    public List<Match> execute(ProximityQuery query) {
+        long startTime = Metrics.ENABLED ? System.nanoTime() : 0;
+        List<Match> matches = evaluate(query);
+        if (Metrics.ENABLED) {
+            Metrics.queryLatency.record(System.nanoTime() - startTime);
+        }
+        return matches;
+    }
+
+    private List<Match> evaluate(ProximityQuery query) {
+        long generation = index.generation();
+        if (cache != null) {
+            cache.checkGeneration(generation);
+            List<Match> cached = cache.getResult(query, generation);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        List<Match> matches = new ArrayList<>();
+        if (findCandidates(query, generation)) {
+            // check the chain in the candidate files only
+            for (int c = 0; c < candidates.size(); c++) {
+                int fileNum = candidates.get(c);
+                if (matchChain(query, fileNum)) {
+                    matches.add(new Match(fileNum, survivors.toArray()));
+                }
+            }
+        }
+        if (cache != null) {
+            cache.putResult(query, generation, Collections.unmodifiableList(matches));
+        }
+        return matches;
+    }
+
+    // leaves the files containing every term of the query in candidates,
+    // returns false if a term is missing from the index
+    private boolean findCandidates(ProximityQuery query, long generation) {
+        String termSet = null;
+        if (cache != null) {
+            termSet = termSet(query);
+            int[] cached = cache.getFiles(termSet, generation);
+            if (cached != null) {
+                System.arraycopy(cached, 0, candidates.reserve(cached.length), 0, cached.length);
+                candidates.setSize(cached.length);
+                return true;
+            }
+        }
+        int n = query.size();
+        int[][] files = new int[n][];
+        for (int i = 0; i < n; i++) {
+            files[i] = index.files(query.term(i));
+            if (files[i].length == 0) {
+                candidates.clear();
+                return false;
+            }
+        }
+        intersectFiles(files, candidates, scratch);
+        if (cache != null) {
+            cache.putFiles(termSet, generation, candidates.toArray());
+        }
+        return true;
+    }
+
+    // the distinct terms of the query in sorted order, the key of its file list
+    private static String termSet(ProximityQuery query) {
+        TreeSet<String> terms = new TreeSet<>();
+        for (int i = 0; i < query.size(); i++) {
+            terms.add(query.term(i));
+        }
+        return String.join(" ", terms);
+    }
+
+    // leaves the positions of the first term that start a chain in survivors
+    private boolean matchChain(ProximityQuery query, int fileNum) {
+        IntList result = reduceChain(query, i -> decode(index.positions(query.term(i), fileNum), decoded), survivors, next);
+        if (result != survivors) {
+            next = survivors;
+            survivors = result;
+        }
+        return !survivors.isEmpty();
+    }
+
+    private static IntList decode(PositionList positions, IntList into) {
+        into.setSize(positions.decodeInto(into.reserve(positions.size())));
+        return into;
+    }
+
+    // leaves the files present in every one of the sorted file lists in candidates,
+    // intersecting from the shortest list up; files itself is not reordered
+    static void intersectFiles(int[][] files, IntList candidates, IntList scratch) {
+        int[][] sorted = files.clone();
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.length, b.length));
+        System.arraycopy(sorted[0], 0, candidates.reserve(sorted[0].length), 0, sorted[0].length);
+        candidates.setSize(sorted[0].length);
+        for (int k = 1; k < sorted.length && !candidates.isEmpty(); k++) {
+            scratch.clear();
+            intersectSorted(candidates.array(), candidates.size(), sorted[k], sorted[k].length, scratch);
+            System.arraycopy(scratch.array(), 0, candidates.reserve(scratch.size()), 0, scratch.size());
+            candidates.setSize(scratch.size());
+        }
+    }
+
+    // checks the chain in one file from its last term back to its first;
+    // positions returns the positions of the i-th chain term in that file and is
+    // only asked for terms still needed. Returns whichever of the two buffers holds
+    // the positions of the first term that start a chain, empty if there are none
+    static IntList reduceChain(ProximityQuery query, IntFunction<IntList> positions, IntList survivors, IntList next) {
+        return reduceChain(query, positions, survivors, next, null);
+    }
+
+    // as above; unless levels is null, also copies the positions of the i-th chain
+    // term that start the rest of the chain into levels[i] for every term reached
+    static IntList reduceChain(ProximityQuery query, IntFunction<IntList> positions, IntList survivors, IntList next, IntList[] levels) {
+        int last = query.size() - 1;
+        IntList lastTerm = positions.apply(last);
+        copy(lastTerm, survivors);
+        if (levels != null) {
+            copy(survivors, levels[last]);
+        }
+        for (int i = last - 1; i >= 0 && !survivors.isEmpty(); i--) {
+            IntList term = positions.apply(i);
+            next.clear();
+            ProximityIntersector.intersect(term.array(), term.size(), survivors.array(), survivors.size(), query.gap(i), next);
+            IntList swap = survivors;
+            survivors = next;
+            next = swap;
+            if (levels != null) {
+                copy(survivors, levels[i]);
+            }
+        }
+        return survivors;
+    }
+
+    private static void copy(IntList from, IntList to) {
+        System.arraycopy(from.array(), 0, to.reserve(from.size()), 0, from.size());
+        to.setSize(from.size());
+    }
+
+    // appends the values present in both sorted arrays to out
+    public static void intersectSorted(int[] a, int na, int[] b, int nb, IntList out) {
+        if (na > nb) {
+            int[] t = a; a = b; b = t;
+            int tn = na; na = nb; nb = tn;
+        }
+        if (ProximityIntersector.VECTORIZED && na >= ProximityIntersector.VECTOR_MIN_LENGTH && nb <= ProximityIntersector.VECTOR_DENSITY * na) {
+            VectorIntersector.intersectSorted(a, na, b, nb, out);
+        }
+        else {
+            intersectSortedScalar(a, na, b, nb, out);
+        }
+    }
+
+    // the scalar kernel of intersectSorted, galloping through the longer array b
+    public static void intersectSortedScalar(int[] a, int na, int[] b, int nb, IntList out) {
+        int i = 0, j = 0, skips = 0;
+        for (; i < na && j < nb; i++) {
+            if (b[j] < a[i]) {
+                skips++;
+                j = ProximityIntersector.gallop(b, j, nb, a[i]);
+                if (j == nb) {
+                    break;
+                }
+            }
+            if (b[j] == a[i]) {
+                out.add(a[i]);
+                j++;
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.postingsIntersected(i + skips, skips);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+    Long-running query service. The index is built or loaded once and then
+    shared read-only by a bounded pool of worker threads that answer
+    proximity queries over HTTP:
+
+        GET /query?q=united+1+states
+        GET /query?q=united+1+states&k=10
+
+    The response is plain text, one line per matching file with the file
+    number, file name and the positions where the chain starts. GET /metrics
+    returns the Metrics in Prometheus text, or JSON with format=json. With k the
+    files are ranked by RankedQueryEngine and only the best k are returned,
+    each line then starting with the score. GET /stats
+    returns the hit and miss counters of the shared QueryCache.
+
+    MemoryIndex is not modified after IndexBuilder.finish() and MappedIndex
+    only uses absolute reads, so both can be queried concurrently; the
+    mutable query buffers live in one QueryEngine per worker thread. When
+    serving a segmented index the server can watch its manifest and swap in
+    a newly opened snapshot after an update; the new generation clears the
+    cache.
+
+    Without TCP_NODELAY small responses wait for the client's delayed ACK
+    (~40 ms). The JDK server reads sun.net.httpserver.nodelay once for the
+    whole JVM, so it has to be set before the first server is created, as
+    the serve command does, or with -Dsun.net.httpserver.nodelay=true.
+*/
+
+package positionalindex;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class QueryServer {
+
+    // the current index snapshot, replaced when a watched index is updated
+    private volatile PositionalIndex index;
+
+    // shared by all engines, or null
+    private final QueryCache cache;
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private ScheduledExecutorService watcher;
+
+    // one engine per worker thread, all sharing the same index and cache
+    private final ThreadLocal<QueryEngine> engines = new ThreadLocal<>();
+    private final ThreadLocal<RankedQueryEngine> rankedEngines = new ThreadLocal<>();
+
+    public QueryServer(PositionalIndex index, int port, int workerCount, QueryCache cache) throws IOException {
+        this.index = index;
+        this.cache = cache;
+        this.workers = Executors.newFixedThreadPool(workerCount);
+        // only listen on the loopback interface
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.server.createContext("/query", this::handleQuery);
+        this.server.createContext("/stats", this::handleStats);
+        this.server.createContext("/metrics", this::handleMetrics);
+        this.server.setExecutor(workers);
+    }
+
+    // checks the manifest of a segmented index every few seconds and reopens the index when it changed
+    public void watch(final File dir, long seconds) {
+        watcher = Executors.newSingleThreadScheduledExecutor();
+        watcher.scheduleWithFixedDelay(() -> {
+            try {
+                if (IndexManifest.load(dir).generation() != index.generation()) {
+                    index = SegmentedIndex.open(dir);
+                    System.out.printf("Reopened index at generation %d.%n", index.generation());
+                }
+            }
+            catch (IOException ex) {
+                System.err.println("Could not reopen index: " + ex.getMessage());
+            }
+        }, seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        workers.shutdownNow();
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    // the port the server listens on, useful when it was started on port 0
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleQuery(HttpExchange exchange) throws IOException {
+        int status = 200;
+        StringBuilder body = new StringBuilder();
+        // answer the whole request from one snapshot
+        PositionalIndex index = this.index;
+        try {
+            QueryEngine engine = engines.get();
+            if (engine == null || engine.index() != index) {
+                engine = new QueryEngine(index, cache);
+                engines.set(engine);
+            }
+            String q = parameter(exchange.getRequestURI().getRawQuery(), "q");
+            if (q == null) {
+                throw new IllegalArgumentException("Missing query parameter q");
+            }
+            ProximityQuery query = ProximityQuery.parse(q);
+            String k = parameter(exchange.getRequestURI().getRawQuery(), "k");
+            List<? extends QueryEngine.Match> matches;
+            if (k != null) {
+                RankedQueryEngine ranked = rankedEngines.get();
+                if (ranked == null || ranked.index() != index) {
+                    ranked = new RankedQueryEngine(index, 10);
+                    rankedEngines.set(ranked);
+                }
+                matches = ranked.top(query, Math.min(topCount(k), Math.max(1, index.fileCount())));
+                body.append("best ").append(matches.size()).append(" files for ").append(query).append('\n');
+            }
+            else {
+                matches = engine.execute(query);
+                body.append(matches.size()).append(" files match ").append(query).append('\n');
+            }
+            for (QueryEngine.Match match : matches) {
+                if (match instanceof RankedQueryEngine.Hit) {
+                    body.append(String.format("%.3f", ((RankedQueryEngine.Hit) match).score)).append('\t');
+                }
+                body.append(match.fileNum).append('\t')
+                    .append(index.fileName(match.fileNum)).append('\t')
+                    .append(Arrays.toString(match.positions)).append('\n');
+            }
+        }
+        catch (IllegalArgumentException ex) {
+            status = 400;
+            body.setLength(0);
+            body.append(ex.getMessage()).append('\n');
+        }
+        catch (RuntimeException ex) {
+            // a failed index read or a bug, the client still gets a response instead of a dropped connection
+            status = 500;
+            body.setLength(0);
+            body.append("Query failed: ").append(ex).append('\n');
+            System.err.println("Query failed: " + ex);
+        }
+
+        send(exchange, status, body.toString());
+    }
+
+    // the number of ranked files requested by the k parameter
+    private static int topCount(String k) {
+        int top;
+        try {
+            top = Integer.parseInt(k);
+        }
+        catch (NumberFormatException ex) {
+            top = 0;
+        }
+        if (top <= 0) {
+            throw new IllegalArgumentException("Parameter k must be a positive integer");
+        }
+        return top;
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        String body = "generation: " + index.generation() + "\n" + (cache == null ? "cache disabled\n" : cache.stats());
+        send(exchange, 200, body);
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        boolean json = "json".equals(parameter(exchange.getRequestURI().getRawQuery(), "format"));
+        send(exchange, 200, json ? Metrics.json() : Metrics.prometheus());
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // returns the decoded value of a parameter in a raw query string, or null
+    private static String parameter(String rawQuery, String name) {
+        if (rawQuery == null) {
+            return null;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+    Ranks the files matching a ProximityQuery and keeps only the best k.
+
+    A file's score is a BM25 term score plus a proximity boost:
+
+    term score   sum over the distinct terms of
+                 idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / average length))
+    proximity    PROXIMITY_WEIGHT * sum of the idfs * m / (m + K1) * min(1, chain / span)
+                 where m is the number of chain matches in the file, chain
+                 the number of terms in the chain and span the length of
+                 the tightest chain match
+
+    The term frequencies are the position counts stored with the postings,
+    so the term score of every candidate file is computed without decoding
+    a single position. The proximity boost of a term can never exceed
+    PROXIMITY_WEIGHT * idf, which gives each candidate an upper bound of
+    term score plus the boosts of all terms. Candidates are visited in
+    decreasing bound order with a min-heap of the best k hits so far; once
+    the bound of the next candidate falls below the worst hit in a full
+    heap, no remaining file can enter the top k and their positions are
+    never decoded.
+
+    The span is measured on the positions that actually form a chain, not
+    on any window that happens to hold every term. From each chain start
+    the next term's position is the one in reach that widens the match
+    least, so the span is that of a real match, close to the tightest one.
+
+    Every term of the chain must occur in a matching file, so the files are
+    first intersected as in QueryEngine; this is the conjunctive case of
+    WAND, where the per-term maximum scores decide where to stop instead of
+    which list to advance.
+
+    An engine reuses its buffers between queries and is not thread-safe.
+*/
+
+package positionalindex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+public class RankedQueryEngine implements Searcher {
+
+    // BM25 term frequency saturation and length normalization
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+
+    // largest proximity boost of a term relative to its idf
+    static final double PROXIMITY_WEIGHT = 1.0;
+
+    // a matching file with its score, best hits first
+    public static class Hit extends QueryEngine.Match {
+        public final double score;
+
+        public Hit(int fileNum, int[] positions, double score) {
+            super(fileNum, positions);
+            this.score = score;
+        }
+    }
+
+    private final PositionalIndex index;
+    private final int k;
+    private final double averageLength;
+
+    // candidates of the last query whose positions were decoded or skipped
+    private int scored;
+    private int skipped;
+
+    // candidate files and scratch space for the file intersection
+    private final IntList candidates = new IntList(256);
+    private final IntList scratch = new IntList(256);
+
+    // decoded positions by distinct term, and the chain positions being checked
+    private IntList[] decoded = new IntList[0];
+    private IntList survivors = new IntList(1024);
+    private IntList next = new IntList(1024);
+
+    // positions of every chain term that start the rest of the chain, for the span
+    private IntList[] levels = new IntList[0];
+
+    public RankedQueryEngine(PositionalIndex index, int k) {
+        this.index = index;
+        this.k = k;
+        long total = 0;
+        for (int fileNum = 1; fileNum <= index.fileCount(); fileNum++) {
+            total += index.fileLength(fileNum);
+        }
+        this.averageLength = Math.max(1.0, (double) total / Math.max(1, index.fileCount()));
+    }
+
+    public PositionalIndex index() {
+        return index;
+    }
+
+    // number of candidate files of the last query whose positions were checked
+    public int scored() {
+        return scored;
+    }
+
+    // number of candidate files of the last query skipped by their score bound
+    public int skipped() {
+        return skipped;
+    }
+
+    // returns the best k hits of the query, best first
+    public List<QueryEngine.Match> execute(ProximityQuery query) {
+        return Collections.unmodifiableList(top(query, k));
+    }
+
+    // returns the best k hits of the query, best first; ties go to the lower file number
+    public List<Hit> top(ProximityQuery query, int k) {
+        long startTime = Metrics.ENABLED ? System.nanoTime() : 0;
+        List<Hit> hits = rank(query, k);
+        if (Metrics.ENABLED) {
+            Metrics.rankedQueryLatency.record(System.nanoTime() - startTime);
+        }
+        return hits;
+    }
+
+    private List<Hit> rank(ProximityQuery query, int k) {
+        scored = 0;
+        skipped = 0;
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+
+        // distinct terms of the chain and the slot of every chain position
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        int[] slotOf = new int[query.size()];
+        for (int i = 0; i < query.size(); i++) {
+            Integer slot = slots.get(query.term(i));
+            if (slot == null) {
+                slot = slots.size();
+                slots.put(query.term(i), slot);
+            }
+            slotOf[i] = slot;
+        }
+        int n = slots.size();
+        decoded = grow(decoded, n);
+        levels = grow(levels, query.size());
+
+        // file lists, position counts and idf of the distinct terms
+        String[] terms = slots.keySet().toArray(new String[0]);
+        int[][] files = new int[n][];
+        int[][] counts = new int[n][];
+        double[] idf = new double[n];
+        double boostBound = 0;
+        for (int t = 0; t < n; t++) {
+            files[t] = index.files(terms[t]);
+            if (files[t].length == 0) {
+                return new ArrayList<>();
+            }
+            counts[t] = index.counts(terms[t]);
+            int docFreq = files[t].length;
+            idf[t] = Math.log(1 + (index.fileCount() - docFreq + 0.5) / (docFreq + 0.5));
+            boostBound += PROXIMITY_WEIGHT * idf[t];
+        }
+
+        // files that contain every term, intersected rarest first
+        QueryEngine.intersectFiles(files, candidates, scratch);
+        int c = candidates.size();
+        if (c == 0) {
+            return new ArrayList<>();
+        }
+
+        // term score of every candidate from the position counts alone
+        double[] termScore = new double[c];
+        for (int t = 0; t < n; t++) {
+            int j = 0;
+            for (int i = 0; i < c; i++) {
+                int fileNum = candidates.get(i);
+                j = ProximityIntersector.gallop(files[t], j, files[t].length, fileNum);
+                int tf = counts[t][j];
+                double norm = K1 * (1 - B + B * index.fileLength(fileNum) / averageLength);
+                termScore[i] += idf[t] * tf * (K1 + 1) / (tf + norm);
+            }
+        }
+
+        // visit the candidates by decreasing upper bound
+        Integer[] byBound = new Integer[c];
+        for (int i = 0; i < c; i++) {
+            byBound[i] = i;
+        }
+        Arrays.sort(byBound, (a, b) -> Double.compare(termScore[b], termScore[a]));
+
+        // worst hit at the head
+        PriorityQueue<Hit> heap = new PriorityQueue<>(Math.min(k, c) + 1, (a, b) -> a.score != b.score ? Double.compare(a.score, b.score) : Integer.compare(b.fileNum, a.fileNum));
+        for (int v = 0; v < c; v++) {
+            int i = byBound[v];
+            if (heap.size() == k && termScore[i] + boostBound < heap.peek().score) {
+                skipped = c - v;
+                break;
+            }
+            scored++;
+            int fileNum = candidates.get(i);
+            for (int t = 0; t < n; t++) {
+                PositionList positions = index.positions(terms[t], fileNum);
+                decoded[t].setSize(positions.decodeInto(decoded[t].reserve(positions.size())));
+            }
+            if (!matchChain(query, slotOf)) {
+                continue;
+            }
+            int matches = survivors.size();
+            double boost = boostBound * matches / (matches + K1) * Math.min(1.0, (double) query.size() / chainSpan(query));
+            Hit hit = new Hit(fileNum, survivors.toArray(), termScore[i] + boost);
+            heap.add(hit);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort(heap.comparator().reversed());
+        return hits;
+    }
+
+    // leaves the positions of the first term that start a chain in survivors
+    private boolean matchChain(ProximityQuery query, int[] slotOf) {
+        IntList result = QueryEngine.reduceChain(query, i -> decoded[slotOf[i]], survivors, next, levels);
+        if (result != survivors) {
+            next = survivors;
+            survivors = result;
+        }
+        return !survivors.isEmpty();
+    }
+
+    // length of the tightest chain match found by following every chain start through levels,
+    // taking each time the position in reach that widens the match least
+    private int chainSpan(ProximityQuery query) {
+        int best = Integer.MAX_VALUE;
+        IntList starts = levels[0];
+        for (int s = 0; s < starts.size(); s++) {
+            int p = starts.get(s);
+            int low = p, high = p;
+            for (int i = 1; i < query.size(); i++) {
+                // every position of level i within reach of p continues the chain, reduceChain left at least one
+                IntList level = levels[i];
+                long reach = query.gap(i - 1) + 1L;
+                int j = ProximityIntersector.gallop(level.array(), 0, level.size(), (int) Math.max(low, p - reach));
+                // the first position at or above the window's low end, and the last one below it
+                int above = j < level.size() && level.get(j) == p ? j + 1 : j;
+                boolean hasAbove = above < level.size() && level.get(above) <= p + reach;
+                boolean hasBelow = j > 0 && level.get(j - 1) >= p - reach;
+                if (hasAbove && (!hasBelow || Math.max(0, level.get(above) - high) <= low - level.get(j - 1))) {
+                    p = level.get(above);
+                }
+                else {
+                    p = level.get(j - 1);
+                }
+                low = Math.min(low, p);
+                high = Math.max(high, p);
+            }
+            best = Math.min(best, high - low + 1);
+        }
+        return best;
+    }
+
+    // grows an array of buffers to at least n, creating the missing ones
+    private static IntList[] grow(IntList[] lists, int n) {
+        if (lists.length < n) {
+            lists = Arrays.copyOf(lists, n);
+            for (int i = 0; i < n; i++) {
+                if (lists[i] == null) {
+                    lists[i] = new IntList(1024);
+                }
+            }
+        }
+        return lists;
+    }
+}
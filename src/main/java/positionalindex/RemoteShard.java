@@ -0,0 +1,108 @@
+/*
+    A shard served by a ShardServer in another process. Connections are
+    kept in a small pool so concurrent queries do not wait for each other
+    and do not reconnect for every request.
+*/
+
+package positionalindex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class RemoteShard implements Shard {
+
+    // one open connection to the shard server
+    private static class Connection {
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+
+        Connection(String host, int port) throws IOException {
+            socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+    }
+
+    private final String host;
+    private final int port;
+    private final int base;
+    private final int fileCount;
+    private final ConcurrentLinkedQueue<Connection> idle = new ConcurrentLinkedQueue<>();
+
+    // connects to host:port and reads the shard's file range
+    public RemoteShard(String host, int port) throws IOException {
+        this.host = host;
+        this.port = port;
+        Connection connection = new Connection(host, port);
+        this.base = connection.in.readInt();
+        this.fileCount = connection.in.readInt();
+        idle.add(connection);
+    }
+
+    public int base() {
+        return base;
+    }
+
+    public int fileCount() {
+        return fileCount;
+    }
+
+    public List<QueryEngine.Match> search(ProximityQuery query) throws IOException {
+        Connection connection = idle.poll();
+        if (connection == null) {
+            connection = new Connection(host, port);
+            // skip the file range sent on connect
+            connection.in.readInt();
+            connection.in.readInt();
+        }
+        // set once the whole response was read, only then can the connection be reused
+        boolean inStep = false;
+        try {
+            connection.out.writeUTF(query.toString());
+            connection.out.flush();
+            if (connection.in.readInt() != ShardServer.OK) {
+                String message = connection.in.readUTF();
+                inStep = true;
+                throw new IOException("Shard " + host + ":" + port + " failed: " + message);
+            }
+            int count = connection.in.readInt();
+            List<QueryEngine.Match> matches = new ArrayList<>(count);
+            for (int m = 0; m < count; m++) {
+                int fileNum = connection.in.readInt();
+                int[] positions = new int[connection.in.readInt()];
+                for (int i = 0; i < positions.length; i++) {
+                    positions[i] = connection.in.readInt();
+                }
+                matches.add(new QueryEngine.Match(fileNum, positions));
+            }
+            inStep = true;
+            return matches;
+        }
+        finally {
+            if (inStep) {
+                idle.add(connection);
+            }
+            else {
+                // the stream may be out of step, do not reuse the connection
+                connection.socket.close();
+            }
+        }
+    }
+
+    public void close() throws IOException {
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.socket.close();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+/*
+    Something that answers proximity queries: a QueryEngine over one
+    index, or a ShardedSearcher that fans a query out to several shards.
+*/
+
+package positionalindex;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface Searcher {
+
+    // returns the matches of the query in increasing file number order
+    List<QueryEngine.Match> execute(ProximityQuery query) throws IOException;
+}
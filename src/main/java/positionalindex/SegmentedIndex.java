@@ -0,0 +1,169 @@
+/*
+    Read view over all segments of an incrementally updated index. The
+    live files of all segments are numbered together in file name order,
+    as a fresh build of the corpus numbers them. Deleted files get no
+    number, so they are not counted in fileCount() and queries never see
+    them; only termCount(), postingsCount() and estimatedBytes() still
+    include their data until a merge drops it.
+
+    A SegmentedIndex is a snapshot of the manifest generation it was opened
+    at; reopen it to see later updates and merges.
+*/
+
+package positionalindex;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SegmentedIndex implements PositionalIndex, AutoCloseable {
+
+    private final long generation;
+    private final MappedIndex[] segments;
+
+    // segment and file number within it of every live file, by global number; index 0 is unused
+    private final int[] segmentOf;
+    private final int[] localNum;
+
+    // global number of every file of segment s, 0 for deleted files
+    private final int[][] globalNum;
+
+    private SegmentedIndex(long generation, MappedIndex[] segments, IndexManifest.Segment[] infos) {
+        this.generation = generation;
+        this.segments = segments;
+        this.globalNum = new int[segments.length][];
+        List<int[]> live = new ArrayList<>();
+        for (int s = 0; s < segments.length; s++) {
+            globalNum[s] = new int[segments[s].fileCount() + 1];
+            for (int fileNum = 1; fileNum <= segments[s].fileCount(); fileNum++) {
+                if (!infos[s].deleted.get(fileNum)) {
+                    live.add(new int[] {s, fileNum});
+                }
+            }
+        }
+        live.sort((a, b) -> segments[a[0]].fileName(a[1]).compareTo(segments[b[0]].fileName(b[1])));
+        this.segmentOf = new int[live.size() + 1];
+        this.localNum = new int[live.size() + 1];
+        for (int i = 0; i < live.size(); i++) {
+            int[] file = live.get(i);
+            segmentOf[i + 1] = file[0];
+            localNum[i + 1] = file[1];
+            globalNum[file[0]][file[1]] = i + 1;
+        }
+    }
+
+    // opens every segment listed in the manifest of dir
+    public static SegmentedIndex open(File dir) throws IOException {
+        IndexManifest manifest = IndexManifest.load(dir);
+        List<IndexManifest.Segment> list = manifest.segments();
+        MappedIndex[] segments = new MappedIndex[list.size()];
+        IndexManifest.Segment[] infos = list.toArray(new IndexManifest.Segment[0]);
+        for (int s = 0; s < segments.length; s++) {
+            segments[s] = MappedIndex.open(new File(dir, infos[s].name));
+        }
+        return new SegmentedIndex(manifest.generation(), segments, infos);
+    }
+
+    // the manifest generation this view was opened at
+    @Override
+    public long generation() {
+        return generation;
+    }
+
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    public int fileCount() {
+        return segmentOf.length - 1;
+    }
+
+    public String fileName(int fileNum) {
+        return segments[segmentOf[fileNum]].fileName(localNum[fileNum]);
+    }
+
+    public int fileLength(int fileNum) {
+        return segments[segmentOf[fileNum]].fileLength(localNum[fileNum]);
+    }
+
+    // number of term entries over all segments; a term present in several
+    // segments is counted once per segment
+    public int termCount() {
+        int terms = 0;
+        for (MappedIndex segment : segments) {
+            terms += segment.termCount();
+        }
+        return terms;
+    }
+
+    // postings and position data of all segments, including those of deleted files
+    public long postingsCount() {
+        long count = 0;
+        for (MappedIndex segment : segments) {
+            count += segment.postingsCount();
+        }
+        return count;
+    }
+
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (MappedIndex segment : segments) {
+            bytes += segment.estimatedBytes();
+        }
+        return bytes;
+    }
+
+    public int[] files(String term) {
+        IntList files = new IntList();
+        for (int s = 0; s < segments.length; s++) {
+            for (int fileNum : segments[s].files(term)) {
+                if (globalNum[s][fileNum] != 0) {
+                    files.add(globalNum[s][fileNum]);
+                }
+            }
+        }
+        // the files of different segments interleave in name order
+        int[] sorted = files.toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    public int[] counts(String term) {
+        // global file number in the high half, count in the low half, so sorting orders the counts like files(term)
+        long[] packed = new long[0];
+        int n = 0;
+        for (int s = 0; s < segments.length; s++) {
+            int[] files = segments[s].files(term);
+            int[] segmentCounts = segments[s].counts(term);
+            packed = Arrays.copyOf(packed, n + files.length);
+            for (int i = 0; i < files.length; i++) {
+                if (globalNum[s][files[i]] != 0) {
+                    packed[n++] = (long) globalNum[s][files[i]] << 32 | segmentCounts[i];
+                }
+            }
+        }
+        Arrays.sort(packed, 0, n);
+        int[] counts = new int[n];
+        for (int i = 0; i < n; i++) {
+            counts[i] = (int) packed[i];
+        }
+        return counts;
+    }
+
+    public PositionList positions(String term, int fileNum) {
+        if (fileNum < 1 || fileNum > fileCount()) {
+            return null;
+        }
+        return segments[segmentOf[fileNum]].positions(term, localNum[fileNum]);
+    }
+
+    // unmaps all segments, only once no thread reads this snapshot any more
+    public void close() {
+        for (MappedIndex segment : segments) {
+            segment.close();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/*
+    One document partition of a sharded index. A shard owns a contiguous
+    range of the corpus files: its local file i is global file base() + i.
+*/
+
+package positionalindex;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface Shard {
+
+    // number of global file numbers before this shard's first file
+    int base();
+
+    // number of files in the shard
+    int fileCount();
+
+    // matches of the query in this shard, with global file numbers in increasing order
+    List<QueryEngine.Match> search(ProximityQuery query) throws IOException;
+
+    // releases connections or other resources
+    default void close() throws IOException {
+    }
+}
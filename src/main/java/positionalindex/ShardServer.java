@@ -0,0 +1,114 @@
+/*
+    Serves one shard to a coordinator running in another process. The
+    protocol is binary over a loopback TCP connection, using the
+    big-endian encoding of DataOutputStream:
+
+    on connect  server sends base and file count of the shard (int, int)
+    request     query chain (writeUTF)
+    response    0, match count, then per match the global file number,
+                the position count and the positions (all int)
+                or 1 and an error message (writeUTF) if the query was
+                invalid or the search failed
+
+    A connection carries any number of requests; each connection is served
+    by one thread of a bounded pool with its own QueryEngine.
+*/
+
+package positionalindex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ShardServer {
+
+    static final int OK = 0;
+    static final int ERROR = 1;
+
+    private final LocalShard shard;
+    private final ServerSocket socket;
+    private final ExecutorService workers;
+
+    public ShardServer(LocalShard shard, int port, int workerCount) throws IOException {
+        this.shard = shard;
+        this.socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.workers = Executors.newFixedThreadPool(workerCount);
+    }
+
+    public int port() {
+        return socket.getLocalPort();
+    }
+
+    // accepts connections until the socket is closed
+    public void serve() throws IOException {
+        while (!socket.isClosed()) {
+            final Socket connection;
+            try {
+                connection = socket.accept();
+            }
+            catch (IOException ex) {
+                if (socket.isClosed()) {
+                    break;
+                }
+                throw ex;
+            }
+            connection.setTcpNoDelay(true);
+            workers.execute(() -> handle(connection));
+        }
+    }
+
+    public void close() throws IOException {
+        socket.close();
+        workers.shutdownNow();
+    }
+
+    private void handle(Socket connection) {
+        try (Socket s = connection;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+            out.writeInt(shard.base());
+            out.writeInt(shard.fileCount());
+            out.flush();
+            while (true) {
+                String line;
+                try {
+                    line = in.readUTF();
+                }
+                catch (EOFException ex) { // the coordinator closed the connection
+                    return;
+                }
+                try {
+                    List<QueryEngine.Match> matches = shard.search(ProximityQuery.parse(line));
+                    out.writeInt(OK);
+                    out.writeInt(matches.size());
+                    for (QueryEngine.Match match : matches) {
+                        out.writeInt(match.fileNum);
+                        out.writeInt(match.positions.length);
+                        for (int position : match.positions) {
+                            out.writeInt(position);
+                        }
+                    }
+                }
+                catch (RuntimeException ex) {
+                    // an invalid query or a failed search, nothing of the response was written yet
+                    out.writeInt(ERROR);
+                    out.writeUTF(ex.getMessage() != null ? ex.getMessage() : ex.toString());
+                }
+                out.flush();
+            }
+        }
+        catch (IOException ex) {
+            System.err.println("Shard connection failed: " + ex.getMessage());
+        }
+    }
+}
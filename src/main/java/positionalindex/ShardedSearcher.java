@@ -0,0 +1,129 @@
+/*
+    Scatter-gather search over document-partitioned shards. A query is
+    sent to every shard in parallel and the per-shard matches, which carry
+    global file numbers, are merged back into global file order. Each
+    shard owns a contiguous file range, so the merge is a concatenation of
+    the shard results in base order.
+*/
+
+package positionalindex;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ShardedSearcher implements Searcher, AutoCloseable {
+
+    private final Shard[] shards;
+    private final ExecutorService pool;
+
+    public ShardedSearcher(List<? extends Shard> shards) {
+        this.shards = shards.toArray(new Shard[0]);
+        Arrays.sort(this.shards, Comparator.comparingInt(Shard::base));
+        this.pool = Executors.newFixedThreadPool(Math.max(1, this.shards.length), runnable -> {
+            Thread thread = new Thread(runnable, "shard-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // files over all shards
+    public int fileCount() {
+        int files = 0;
+        for (Shard shard : shards) {
+            files += shard.fileCount();
+        }
+        return files;
+    }
+
+    public List<QueryEngine.Match> execute(final ProximityQuery query) throws IOException {
+        List<Future<List<QueryEngine.Match>>> futures = new ArrayList<>(shards.length);
+        for (final Shard shard : shards) {
+            futures.add(pool.submit(new Callable<List<QueryEngine.Match>>() {
+                public List<QueryEngine.Match> call() throws IOException {
+                    return shard.search(query);
+                }
+            }));
+        }
+        // shards are in base order, so appending keeps global file order
+        List<QueryEngine.Match> matches = new ArrayList<>();
+        try {
+            for (Future<List<QueryEngine.Match>> future : futures) {
+                matches.addAll(future.get());
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for shards", ex);
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IOException(ex.getCause());
+        }
+        return matches;
+    }
+
+    public void close() throws IOException {
+        pool.shutdownNow();
+        for (Shard shard : shards) {
+            shard.close();
+        }
+    }
+
+    // splits the sorted corpus files into shardCount contiguous ranges and indexes them in parallel
+    public static List<LocalShard> buildLocalShards(final String[] fileNames, int shardCount) throws IOException {
+        List<Future<LocalShard>> futures = new ArrayList<>();
+        ExecutorService builders = Executors.newFixedThreadPool(shardCount);
+        try {
+            for (int s = 0; s < shardCount; s++) {
+                final int[] range = range(fileNames.length, s, shardCount);
+                futures.add(builders.submit(() -> buildShard(fileNames, range[0], range[1])));
+            }
+            List<LocalShard> shards = new ArrayList<>();
+            for (Future<LocalShard> future : futures) {
+                shards.add(future.get());
+            }
+            return shards;
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Indexing interrupted", ex);
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        }
+        finally {
+            builders.shutdownNow();
+        }
+    }
+
+    // indexes fileNames[from, to) as one shard
+    public static LocalShard buildShard(String[] fileNames, int from, int to) throws IOException {
+        IndexBuilder builder = new IndexBuilder();
+        for (int i = from; i < to; i++) {
+            builder.addFile(fileNames[i], i - from + 1);
+        }
+        return new LocalShard(builder.finish(Arrays.copyOfRange(fileNames, from, to)), from);
+    }
+
+    // {from, to} of shard s when fileCount files are split into shardCount ranges
+    public static int[] range(int fileCount, int s, int shardCount) {
+        return new int[] { (int) ((long) fileCount * s / shardCount), (int) ((long) fileCount * (s + 1) / shardCount) };
+    }
+}
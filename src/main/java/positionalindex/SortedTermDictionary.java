@@ -0,0 +1,263 @@
+/*
+    Frozen, sorted term dictionary for the query side. Terms are front
+    coded in blocks of BLOCK_SIZE: the first term of a block is stored in
+    full, every following term as the length of the prefix it shares with
+    the previous term plus the remaining suffix. A term's id is its rank
+    in sorted order, so ids of all terms with a common prefix form one
+    contiguous range, which is what prefix and wildcard lookups use.
+
+    Instances are immutable and can be shared between query threads.
+*/
+
+package positionalindex;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class SortedTermDictionary {
+
+    // number of terms per front-coded block
+    static final int BLOCK_SIZE = 16;
+
+    // front-coded terms, block b starts at blockOffsets[b]
+    private final byte[] data;
+    private final int[] blockOffsets;
+    private final int size;
+
+    // length of the longest term, sizes the decoding buffers
+    private final int maxLength;
+
+    private SortedTermDictionary(byte[] data, int[] blockOffsets, int size, int maxLength) {
+        this.data = data;
+        this.blockOffsets = blockOffsets;
+        this.size = size;
+        this.maxLength = maxLength;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // returns the id of term, or -1 if it is not in the dictionary
+    public int id(String term) {
+        byte[] key = term.getBytes(StandardCharsets.UTF_8);
+        int id = lowerBound(key);
+        return id < size && compare(id, key) == 0 ? id : -1;
+    }
+
+    // returns the term with the given id
+    public String term(int id) {
+        byte[] buffer = new byte[maxLength];
+        int length = decode(id, buffer);
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // returns {from, to}, the id range of the terms starting with prefix
+    public int[] prefixRange(String prefix) {
+        byte[] key = prefix.getBytes(StandardCharsets.UTF_8);
+        int from = lowerBound(key);
+        // the first term after the range is the lower bound of the next prefix
+        int to = size;
+        for (int i = key.length - 1; i >= 0; i--) {
+            if (key[i] != (byte) 0xFF) {
+                byte[] next = Arrays.copyOf(key, i + 1);
+                next[i]++;
+                to = lowerBound(next);
+                break;
+            }
+        }
+        return new int[] { from, to };
+    }
+
+    // returns the ids of the terms matching pattern, where '*' matches any
+    // sequence of letters and '?' matches a single letter
+    public IntList matching(String pattern) {
+        IntList ids = new IntList();
+        int wildcard = 0;
+        while (wildcard < pattern.length() && pattern.charAt(wildcard) != '*' && pattern.charAt(wildcard) != '?') {
+            wildcard++;
+        }
+        if (wildcard == pattern.length()) { // no wildcard, at most the term itself
+            int id = id(pattern);
+            if (id >= 0) {
+                ids.add(id);
+            }
+            return ids;
+        }
+        // only the terms sharing the literal prefix need to be checked, all of them for a single trailing '*'
+        String prefix = pattern.substring(0, wildcard);
+        boolean allOfPrefix = pattern.equals(prefix + "*");
+        int[] range = prefixRange(prefix);
+        for (int id = range[0]; id < range[1]; id++) {
+            if (allOfPrefix || globMatches(pattern, term(id))) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    // first id whose term is >= key, or size if there is none
+    private int lowerBound(byte[] key) {
+        if (size == 0) {
+            return 0;
+        }
+        // last block whose first term is <= key
+        int low = 0, high = blockOffsets.length - 1, block = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid * BLOCK_SIZE, key) <= 0) {
+                block = mid;
+                low = mid + 1;
+            }
+            else {
+                high = mid - 1;
+            }
+        }
+        // scan the block, the answer is in it or is the first term of the next block
+        byte[] buffer = new byte[maxLength];
+        int offset = blockOffsets[block];
+        int length = 0;
+        int end = Math.min(size, (block + 1) * BLOCK_SIZE);
+        for (int id = block * BLOCK_SIZE; id < end; id++) {
+            int shared = 0;
+            if (id != block * BLOCK_SIZE) {
+                shared = readVInt(offset);
+                offset = skipVInt(offset);
+            }
+            int suffix = readVInt(offset);
+            offset = skipVInt(offset);
+            System.arraycopy(data, offset, buffer, shared, suffix);
+            offset += suffix;
+            length = shared + suffix;
+            if (Arrays.compareUnsigned(buffer, 0, length, key, 0, key.length) >= 0) {
+                return id;
+            }
+        }
+        return end;
+    }
+
+    // compares the term with the given id to key as unsigned bytes
+    private int compare(int id, byte[] key) {
+        byte[] buffer = new byte[maxLength];
+        int length = decode(id, buffer);
+        return Arrays.compareUnsigned(buffer, 0, length, key, 0, key.length);
+    }
+
+    // decodes term id into buffer and returns its length
+    private int decode(int id, byte[] buffer) {
+        int block = id / BLOCK_SIZE;
+        int offset = blockOffsets[block];
+        int length = 0;
+        for (int i = block * BLOCK_SIZE; i <= id; i++) {
+            int shared = 0;
+            if (i != block * BLOCK_SIZE) {
+                shared = readVInt(offset);
+                offset = skipVInt(offset);
+            }
+            int suffix = readVInt(offset);
+            offset = skipVInt(offset);
+            System.arraycopy(data, offset, buffer, shared, suffix);
+            offset += suffix;
+            length = shared + suffix;
+        }
+        return length;
+    }
+
+    private int readVInt(int offset) {
+        int value = 0, shift = 0, b;
+        do {
+            b = data[offset++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) == 0);
+        return value;
+    }
+
+    private int skipVInt(int offset) {
+        while ((data[offset++] & 0x80) == 0) {
+        }
+        return offset;
+    }
+
+    // matches a term against a pattern of letters, '*' and '?'
+    static boolean globMatches(String pattern, String term) {
+        int p = 0, t = 0, star = -1, mark = 0;
+        while (t < term.length()) {
+            if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == term.charAt(t))) {
+                p++;
+                t++;
+            }
+            else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                mark = t;
+            }
+            else if (star >= 0) {
+                p = star + 1;
+                t = ++mark;
+            }
+            else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    // collects terms in sorted order and front codes them
+    public static class Builder {
+        private byte[] data = new byte[1 << 14];
+        private int length;
+        private int[] blockOffsets = new int[64];
+        private int size;
+        private int maxLength;
+
+        // the previous term, for the shared prefix
+        private byte[] previous = new byte[64];
+        private int previousLength;
+
+        // adds the next term, terms must be added in unsigned byte order
+        public void add(byte[] term, int start, int termLength) {
+            int shared = 0;
+            if (size % BLOCK_SIZE == 0) {
+                if (size / BLOCK_SIZE == blockOffsets.length) {
+                    blockOffsets = Arrays.copyOf(blockOffsets, blockOffsets.length * 2);
+                }
+                blockOffsets[size / BLOCK_SIZE] = length;
+            }
+            else {
+                int limit = Math.min(previousLength, termLength);
+                while (shared < limit && previous[shared] == term[start + shared]) {
+                    shared++;
+                }
+                ensureCapacity(5);
+                length = PositionList.writeVByte(data, length, shared);
+            }
+            int suffix = termLength - shared;
+            ensureCapacity(5 + suffix);
+            length = PositionList.writeVByte(data, length, suffix);
+            System.arraycopy(term, start + shared, data, length, suffix);
+            length += suffix;
+
+            if (termLength > previous.length) {
+                previous = new byte[Math.max(termLength, previous.length * 2)];
+            }
+            System.arraycopy(term, start, previous, 0, termLength);
+            previousLength = termLength;
+            maxLength = Math.max(maxLength, termLength);
+            size++;
+        }
+
+        public SortedTermDictionary build() {
+            int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            return new SortedTermDictionary(Arrays.copyOf(data, length), Arrays.copyOf(blockOffsets, Math.max(blocks, 1)), size, maxLength);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+    Build-time term dictionary. Every new term gets the next dense integer
+    id, so the indexing loop can keep per-term data in arrays indexed by id
+    and needs a single dictionary lookup per token. Terms are stored back to
+    back in one byte pool and found through an open-addressing hash table
+    with linear probing, so adding a term never allocates a String.
+
+    Once the corpus is indexed the dictionary is frozen into a
+    SortedTermDictionary for the query side.
+*/
+
+package positionalindex;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class TermDictionary {
+
+    // table slots hold id + 1, 0 marks an empty slot
+    private int[] table = new int[1 << 12];
+    private int mask = table.length - 1;
+
+    // bytes of all terms, term id starts at offsets[id] and ends at offsets[id + 1]
+    private byte[] pool = new byte[1 << 14];
+    private int[] offsets = new int[1 << 11];
+
+    // hash of every term, kept to rehash without reading the pool
+    private int[] hashes = new int[1 << 11];
+
+    private int size;
+
+    // returns the id of the term, adding it if it is new
+    public int add(byte[] word, int start, int length) {
+        int hash = hash(word, start, length);
+        int slot = hash & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && equals(id, word, start, length)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // new term, append its bytes to the pool
+        int id = size++;
+        if (id + 1 >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        int offset = offsets[id];
+        if (offset + length > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(pool.length * 2, offset + length));
+        }
+        System.arraycopy(word, start, pool, offset, length);
+        offsets[id + 1] = offset + length;
+        hashes[id] = hash;
+        table[slot] = id + 1;
+
+        // keep the load factor at or below one half
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    public int add(byte[] word, int length) {
+        return add(word, 0, length);
+    }
+
+    // returns the id of the term or -1 if it has not been added
+    public int find(byte[] word, int start, int length) {
+        int hash = hash(word, start, length);
+        int slot = hash & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && equals(id, word, start, length)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String term(int id) {
+        return new String(pool, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.US_ASCII);
+    }
+
+    // the shared byte pool, term id occupies [offset(id), offset(id) + length(id))
+    public byte[] pool() {
+        return pool;
+    }
+
+    public int offset(int id) {
+        return offsets[id];
+    }
+
+    public int length(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    // returns the term ids sorted by their bytes, unsigned
+    public int[] sortedIds() {
+        Integer[] ids = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = i;
+        }
+        Arrays.sort(ids, (a, b) -> Arrays.compareUnsigned(pool, offsets[a], offsets[a + 1], pool, offsets[b], offsets[b + 1]));
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = ids[i];
+        }
+        return sorted;
+    }
+
+    // freezes the terms in the order of sortedIds into a front-coded dictionary
+    public SortedTermDictionary freeze(int[] sortedIds) {
+        SortedTermDictionary.Builder builder = new SortedTermDictionary.Builder();
+        for (int id : sortedIds) {
+            builder.add(pool, offsets[id], length(id));
+        }
+        return builder.build();
+    }
+
+    // FNV-1a over the term bytes
+    static int hash(byte[] word, int start, int length) {
+        int h = 0x811C9DC5;
+        for (int i = start; i < start + length; i++) {
+            h = (h ^ word[i]) * 0x01000193;
+        }
+        // fold the high bits in, the table only uses the low bits
+        return h ^ (h >>> 16);
+    }
+
+    private boolean equals(int id, byte[] word, int start, int length) {
+        int offset = offsets[id];
+        return offsets[id + 1] - offset == length
+                && Arrays.equals(pool, offset, offset + length, word, start, start + length);
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+    Postings of one term in the in-memory index: the numbers of the files
+    containing the term, in increasing order, each with its compressed
+    positions.
+*/
+
+package positionalindex;
+
+import java.util.Arrays;
+
+public class TermPostings {
+
+    private int[] files = new int[2];
+    private PositionList[] lists = new PositionList[2];
+    private int size;
+
+    // set when files were appended out of order, e.g. by merging partial indexes
+    private boolean unsorted;
+
+    // appends the positions of the term in a file
+    public void add(int fileNum, PositionList positions) {
+        if (size == files.length) {
+            files = Arrays.copyOf(files, size * 2);
+            lists = Arrays.copyOf(lists, size * 2);
+        }
+        if (size > 0 && fileNum <= files[size - 1]) {
+            unsorted = true;
+        }
+        files[size] = fileNum;
+        lists[size] = positions;
+        size++;
+    }
+
+    // appends all files of other
+    public void addAll(TermPostings other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.files[i], other.lists[i]);
+        }
+    }
+
+    // number of files containing the term
+    public int size() {
+        return size;
+    }
+
+    // file number of the i-th posting
+    public int file(int i) {
+        return files[i];
+    }
+
+    // positions of the i-th posting
+    public PositionList positions(int i) {
+        return lists[i];
+    }
+
+    // returns the positions in fileNum, or null if the term does not occur there
+    public PositionList find(int fileNum) {
+        int i = Arrays.binarySearch(files, 0, size, fileNum);
+        return i >= 0 ? lists[i] : null;
+    }
+
+    // the sorted file numbers
+    public int[] files() {
+        return Arrays.copyOf(files, size);
+    }
+
+    // sorts the postings by file number and releases unused capacity
+    public void finish() {
+        if (unsorted) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(files[a], files[b]));
+            int[] sortedFiles = new int[size];
+            PositionList[] sortedLists = new PositionList[size];
+            for (int i = 0; i < size; i++) {
+                sortedFiles[i] = files[order[i]];
+                sortedLists[i] = lists[order[i]];
+            }
+            files = sortedFiles;
+            lists = sortedLists;
+            unsorted = false;
+        }
+        else if (files.length != size) {
+            files = Arrays.copyOf(files, size);
+            lists = Arrays.copyOf(lists, size);
+        }
+        for (int i = 0; i < size; i++) {
+            lists[i].trim();
+        }
+    }
+
+    // rough estimate of heap bytes used by the file numbers and positions
+    public long estimatedBytes() {
+        long bytes = 16L + 8L * files.length;
+        for (int i = 0; i < size; i++) {
+            bytes += lists[i].estimatedBytes();
+        }
+        return bytes;
+    }
+}
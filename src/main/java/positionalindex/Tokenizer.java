@@ -0,0 +1,68 @@
+/*
+    Streaming word tokenizer. A file is read through a FileChannel in large
+    chunks and scanned byte by byte for runs of ASCII letters, the same
+    words the [a-zA-Z]+ pattern finds. Letters are lowercased as they are
+    copied into a single reusable word buffer, so no String, Matcher or
+    line is created while scanning. Bytes outside A-Z and a-z, including
+    all bytes of multi-byte UTF-8 characters, separate words.
+*/
+
+package positionalindex;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+public class Tokenizer {
+
+    // size of the chunks read from the file
+    static final int CHUNK_SIZE = 1 << 16;
+
+    // receives every word of a file with its position, starting at 1
+    // the word buffer is reused, copy it if it has to be kept
+    public interface Sink {
+        void token(byte[] word, int length, int position);
+    }
+
+    private final ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+    private byte[] word = new byte[64];
+
+    // tokenizes the file and returns the number of bytes read
+    public long tokenize(File file, Sink sink) throws IOException {
+        long bytesRead = 0;
+        int length = 0, position = 1;
+        try (FileInputStream in = new FileInputStream(file); FileChannel channel = in.getChannel()) {
+            byte[] data = chunk.array();
+            int n;
+            chunk.clear();
+            while ((n = channel.read(chunk)) != -1) {
+                bytesRead += n;
+                for (int i = 0; i < n; i++) {
+                    int b = data[i];
+                    // fold to lowercase, then test for a-z
+                    int lower = b | 0x20;
+                    if (lower >= 'a' && lower <= 'z') {
+                        if (length == word.length) {
+                            word = Arrays.copyOf(word, length * 2);
+                        }
+                        word[length++] = (byte) lower;
+                    }
+                    else if (length > 0) {
+                        sink.token(word, length, position++);
+                        length = 0;
+                    }
+                }
+                chunk.clear();
+            }
+        }
+        // a word may end at the end of the file
+        if (length > 0) {
+            sink.token(word, length, position);
+        }
+        return bytesRead;
+    }
+}
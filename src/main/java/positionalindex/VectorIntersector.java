@@ -0,0 +1,129 @@
+/*
+    SIMD versions of the two intersection kernels, written with the
+    incubating jdk.incubator.vector API. The JVM maps them to the widest
+    vector unit of the machine, e.g. 16 ints per AVX-512 register.
+
+    intersect        proximity matching as in ProximityIntersector: a block
+                     of positions of the first word is loaded into a vector
+                     and every position of the second word that can lie
+                     within the window of the block is broadcast and
+                     compared against all lanes at once, marking the lanes
+                     with 0 < |p - q| <= window + 1
+    intersectSorted  values present in both sorted arrays: a block of the
+                     first array is loaded and every value of the second
+                     array up to the end of the block is broadcast and
+                     compared for equality against all lanes
+
+    Both replace the data dependent branches of the scalar merge with one
+    vector compare per value of the second list covering a whole block of
+    the first, which pays off when the two lists have similar density;
+    ProximityIntersector and QueryEngine only call them in that case and
+    gallop otherwise.
+
+    This class can only be loaded when the JVM was started with
+    --add-modules jdk.incubator.vector; ProximityIntersector.VECTORIZED
+    checks that before anything here is used.
+*/
+
+package positionalindex;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+public class VectorIntersector {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    // number of ints compared by one vector operation
+    public static int lanes() {
+        return LANES;
+    }
+
+    // largest window whose doubled reach still fits the unsigned lane compare
+    static final int MAX_WINDOW = (1 << 30) - 1;
+
+    // appends to answer every position of p1 that has a position of p2 within window words
+    public static void intersect(int[] p1, int n1, int[] p2, int n2, int window, IntList answer) {
+        if (window > MAX_WINDOW) {
+            // such windows span nearly any two positions, the scalar kernel handles them exactly
+            ProximityIntersector.intersectScalar(p1, n1, p2, n2, window, answer);
+            return;
+        }
+        int reach = window + 1;
+        int j = 0, skips = 0, scanned = 0;
+        for (int i = 0; i < n1 && j < n2; i += LANES) {
+            VectorMask<Integer> lanes = SPECIES.indexInRange(i, n1);
+            IntVector block = IntVector.fromArray(SPECIES, p1, i, lanes);
+            int first = p1[i];
+            int last = p1[Math.min(i + LANES, n1) - 1];
+
+            // the first position of the second word that can match the block
+            if (p2[j] < first - reach) {
+                skips++;
+                j = ProximityIntersector.gallop(p2, j, n2, first - reach);
+                if (j == n2) {
+                    break;
+                }
+            }
+
+            // lanes with a second word position q at 0 < |p - q| <= reach
+            VectorMask<Integer> found = SPECIES.maskAll(false);
+            int k = j;
+            for (; k < n2 && p2[k] <= (long) last + reach; k++) {
+                IntVector distance = block.sub(p2[k]);
+                // unsigned distance + reach <= 2 * reach is -reach <= distance <= reach in one compare
+                found = found.or(distance.add(reach).compare(VectorOperators.UNSIGNED_LE, 2 * reach)
+                        .andNot(distance.compare(VectorOperators.EQ, 0)));
+            }
+            scanned += LANES + k - j;
+
+            // positions that fall behind the next block are not needed again
+            while (j < n2 && p2[j] < last - reach) {
+                j++;
+            }
+
+            long bits = found.and(lanes).toLong();
+            while (bits != 0) {
+                answer.add(p1[i + Long.numberOfTrailingZeros(bits)]);
+                bits &= bits - 1;
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.positionsIntersected(scanned, skips);
+        }
+    }
+
+    // appends the values present in both sorted arrays to out
+    public static void intersectSorted(int[] a, int na, int[] b, int nb, IntList out) {
+        int j = 0, scanned = 0;
+        for (int i = 0; i < na && j < nb; i += LANES) {
+            VectorMask<Integer> lanes = SPECIES.indexInRange(i, na);
+            IntVector block = IntVector.fromArray(SPECIES, a, i, lanes);
+            int last = a[Math.min(i + LANES, na) - 1];
+
+            // values of b up to the end of the block, those before it matched nothing
+            while (j < nb && b[j] < a[i]) {
+                j++;
+                scanned++;
+            }
+            VectorMask<Integer> found = SPECIES.maskAll(false);
+            int from = j;
+            for (; j < nb && b[j] <= last; j++) {
+                found = found.or(block.compare(VectorOperators.EQ, b[j]));
+            }
+            scanned += LANES + j - from;
+
+            long bits = found.and(lanes).toLong();
+            while (bits != 0) {
+                out.add(a[i + Long.numberOfTrailingZeros(bits)]);
+                bits &= bits - 1;
+            }
+        }
+        if (Metrics.ENABLED) {
+            Metrics.postingsIntersected(scanned, 0);
+        }
+    }
+}
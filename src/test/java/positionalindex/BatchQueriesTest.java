@@ -0,0 +1,204 @@
+/*
+    Runs query files through BatchQueries and compares the output with the
+    same queries answered one by one through QueryEngine, and checks that a
+    failing index read becomes an error line or fails the batch instead of
+    hanging it.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BatchQueriesTest {
+
+    @TempDir
+    File temp;
+
+    private MemoryIndex index;
+    private File queryFile;
+    private List<String> lines;
+
+    @BeforeEach
+    void buildCorpus() throws IOException {
+        File corpus = new File(temp, "corpus");
+        corpus.mkdirs();
+        Random random = new Random(61);
+        for (int i = 0; i < 12; i++) {
+            TestCorpus.writeFile(new File(corpus, "file" + i + ".txt"), 100 + random.nextInt(1500), random);
+        }
+        index = TestCorpus.build(corpus);
+
+        // groups of queries that share terms, repeated queries, invalid lines and unknown terms
+        lines = new ArrayList<>();
+        for (int q = 0; q < 400; q++) {
+            int roll = random.nextInt(20);
+            if (roll == 0) {
+                lines.add("whale two sea");
+            }
+            else if (roll == 1 && !lines.isEmpty()) {
+                lines.add(lines.get(random.nextInt(lines.size())));
+            }
+            else {
+                StringBuilder sb = new StringBuilder(word(random));
+                for (int t = random.nextInt(3); t > 0; t--) {
+                    sb.append(' ').append(random.nextInt(5)).append(' ').append(word(random));
+                }
+                lines.add(sb.toString());
+            }
+        }
+        queryFile = new File(temp, "queries.txt");
+        Files.write(queryFile.toPath(), lines, StandardCharsets.UTF_8);
+    }
+
+    private static String word(Random random) {
+        return random.nextInt(30) == 0 ? "nosuchword" : TestCorpus.WORDS[random.nextInt(TestCorpus.WORDS.length)].replaceAll("[^a-z]", "");
+    }
+
+    @Test
+    void matchesQueriesAnsweredOneByOne() throws IOException {
+        String expected = expected();
+        // a cache that holds everything, one that evicts constantly, and none at all
+        for (long cacheBytes : new long[] {64 << 20, 4096, 0}) {
+            for (int threads : new int[] {1, 3}) {
+                File out = new File(temp, "out" + cacheBytes + "-" + threads + ".txt");
+                BatchQueries.Result result = new BatchQueries(index, cacheBytes).run(queryFile, out, threads);
+                assertEquals(lines.size(), result.queries);
+                assertEquals(expected, Files.readString(out.toPath(), StandardCharsets.UTF_8), cacheBytes + " bytes, " + threads + " threads");
+            }
+        }
+    }
+
+    @Test
+    void sharesDecodedPositionsWithinTheBatch() throws IOException {
+        BatchQueries.Result result = new BatchQueries(index, 64 << 20).run(queryFile, new File(temp, "out.txt"), 2);
+        // repeated terms are decoded once and then served from the shared cache
+        assertTrue(result.reused > result.decoded, result.reused + " reused, " + result.decoded + " decoded");
+    }
+
+    @Test
+    void answersFailedQueriesWithAnErrorLine() throws IOException {
+        PositionalIndex broken = failingOn("whale", () -> new IllegalStateException("broken index"));
+        File out = new File(temp, "out.txt");
+        new BatchQueries(broken, 64 << 20).run(queryFile, out, 3);
+
+        // every query with the term whale fails alone, the others are answered as usual
+        String expected = expected("whale", "java.lang.IllegalStateException: broken index");
+        assertTrue(expected.contains("\terror: java.lang.IllegalStateException"));
+        assertEquals(expected, Files.readString(out.toPath(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void failsTheBatchOnAnError() {
+        PositionalIndex broken = failingOn("whale", () -> new AssertionError("broken index"));
+        // the writer must not wait forever for the queries the failed worker never answered
+        IOException ex = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> assertThrows(IOException.class,
+                () -> new BatchQueries(broken, 64 << 20).run(queryFile, new File(temp, "out.txt"), 3)));
+        assertTrue(ex.getMessage().contains("broken index"), ex.getMessage());
+    }
+
+    // the index with every file list of term replaced by the failure
+    private PositionalIndex failingOn(String term, Supplier<Throwable> failure) {
+        return new PositionalIndex() {
+            public int fileCount() {
+                return index.fileCount();
+            }
+
+            public String fileName(int fileNum) {
+                return index.fileName(fileNum);
+            }
+
+            public int termCount() {
+                return index.termCount();
+            }
+
+            public int[] files(String t) {
+                if (t.equals(term)) {
+                    Throwable ex = failure.get();
+                    if (ex instanceof Error) {
+                        throw (Error) ex;
+                    }
+                    throw (RuntimeException) ex;
+                }
+                return index.files(t);
+            }
+
+            public PositionList positions(String t, int fileNum) {
+                return index.positions(t, fileNum);
+            }
+
+            public int fileLength(int fileNum) {
+                return index.fileLength(fileNum);
+            }
+
+            public long postingsCount() {
+                return index.postingsCount();
+            }
+
+            public long estimatedBytes() {
+                return index.estimatedBytes();
+            }
+        };
+    }
+
+    private String expected() {
+        return expected(null, null);
+    }
+
+    // the output of the batch, rendered from QueryEngine one query at a time;
+    // queries with brokenTerm get the error line instead
+    private String expected(String brokenTerm, String error) {
+        QueryEngine engine = new QueryEngine(index);
+        StringBuilder sb = new StringBuilder();
+        for (int q = 0; q < lines.size(); q++) {
+            ProximityQuery query;
+            try {
+                query = ProximityQuery.parse(lines.get(q));
+            }
+            catch (IllegalArgumentException ex) {
+                sb.append(q + 1).append('\t').append(lines.get(q).trim()).append("\terror: ").append(ex.getMessage()).append('\n');
+                continue;
+            }
+            if (brokenTerm != null && hasTerm(query, brokenTerm)) {
+                sb.append(q + 1).append('\t').append(query).append("\terror: ").append(error).append('\n');
+                continue;
+            }
+            List<QueryEngine.Match> matches = engine.execute(query);
+            sb.append(q + 1).append('\t').append(query).append('\t').append(matches.size()).append('\n');
+            for (QueryEngine.Match match : matches) {
+                sb.append(match.fileNum).append('\t').append(index.fileName(match.fileNum)).append('\t');
+                IntList positions = new IntList();
+                for (int position : match.positions) {
+                    positions.add(position);
+                }
+                sb.append(positions).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean hasTerm(ProximityQuery query, String term) {
+        for (int i = 0; i < query.size(); i++) {
+            if (query.term(i).equals(term)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+    Writes the same corpus with BlockIndexer under several memory budgets
+    and with DiskIndexWriter from one in-memory index, and compares the
+    files byte for byte, and checks that a term too long for the index
+    format is refused.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BlockIndexerTest {
+
+    @TempDir
+    File temp;
+
+    @Test
+    void writesTheSameFilesAsOneIndex() throws IOException {
+        File corpus = new File(temp, "corpus");
+        new File(corpus, "sub").mkdirs();
+        Random random = new Random(11);
+        for (int i = 0; i < 9; i++) {
+            TestCorpus.writeFile(new File(i % 3 == 0 ? new File(corpus, "sub") : corpus, "file" + i + ".txt"), 200 + random.nextInt(2000), random);
+        }
+        File whole = new File(temp, "whole");
+        DiskIndexWriter.write(TestCorpus.build(corpus), whole);
+
+        String[] fileNames = Problem2.sortedFileNames(corpus.getPath());
+        // a run per file, a few runs, and a single run
+        for (long budget : new long[] {1, 16 * 1024, 1L << 30}) {
+            File blocks = new File(temp, "blocks" + budget);
+            int runs = BlockIndexer.write(fileNames, blocks, budget);
+            assertTrue(runs >= 1 && runs <= fileNames.length);
+            for (String name : new String[] {MappedIndex.DOCS_FILE, MappedIndex.TERMS_FILE, MappedIndex.POSTINGS_FILE, MappedIndex.POSITIONS_FILE}) {
+                assertArrayEquals(Files.readAllBytes(new File(whole, name).toPath()), Files.readAllBytes(new File(blocks, name).toPath()),
+                        name + " with budget " + budget);
+            }
+            assertFalse(new File(blocks, BlockIndexer.RUNS_DIR).exists());
+        }
+    }
+
+    @Test
+    void refusesTermsTooLongForTheirLengthField() throws IOException {
+        File corpus = new File(temp, "corpus");
+        corpus.mkdirs();
+        Files.writeString(new File(corpus, "long.txt").toPath(), "whale " + "a".repeat(MappedIndex.MAX_TERM_BYTES + 1));
+        String[] fileNames = Problem2.sortedFileNames(corpus.getPath());
+        assertThrows(IOException.class, () -> BlockIndexer.write(fileNames, new File(temp, "blocks"), 1L << 30));
+    }
+}
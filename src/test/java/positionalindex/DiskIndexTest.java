@@ -0,0 +1,107 @@
+/*
+    Writes an index to disk with DiskIndexWriter and reads it back through
+    MappedIndex and MappedFile, and checks the limit on term length.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DiskIndexTest {
+
+    @TempDir
+    File temp;
+
+    private File corpus;
+    private MemoryIndex memory;
+
+    @BeforeEach
+    void buildCorpus() throws IOException {
+        corpus = new File(temp, "corpus");
+        new File(corpus, "sub").mkdirs();
+        Random random = new Random(11);
+        for (int i = 0; i < 9; i++) {
+            TestCorpus.writeFile(new File(i % 3 == 0 ? new File(corpus, "sub") : corpus, "file" + i + ".txt"), 200 + random.nextInt(2000), random);
+        }
+        memory = TestCorpus.build(corpus);
+    }
+
+    @Test
+    void mappedIndexReadsWhatWasWritten() throws IOException {
+        File dir = new File(temp, "index");
+        DiskIndexWriter.write(memory, dir);
+        MappedIndex mapped = MappedIndex.open(dir);
+
+        assertEquals(memory.fileCount(), mapped.fileCount());
+        assertEquals(memory.termCount(), mapped.termCount());
+        assertEquals(memory.postingsCount(), mapped.postingsCount());
+        for (int fileNum = 1; fileNum <= memory.fileCount(); fileNum++) {
+            assertEquals(memory.fileName(fileNum), mapped.fileName(fileNum));
+        }
+        for (int t = 0; t < memory.termCount(); t++) {
+            String term = memory.dictionary().term(t);
+            assertEquals(term, mapped.term(t));
+            assertEquals(t, memory.dictionary().id(term));
+            assertArrayEquals(memory.files(term), mapped.files(term), term);
+            assertArrayEquals(memory.counts(term), mapped.counts(term), term);
+        }
+        TestCorpus.assertSameContent(memory, mapped);
+
+        assertEquals(0, mapped.files("nosuchword").length);
+        assertNull(mapped.positions("nosuchword", 1));
+        assertNull(mapped.positions("whale", mapped.fileCount() + 1));
+    }
+
+    @Test
+    void termLengthIsLimitedToAnUnsignedShort() throws IOException {
+        String longest = "a".repeat(MappedIndex.MAX_TERM_BYTES);
+        Files.writeString(new File(corpus, "long.txt").toPath(), "whale " + longest + " whale");
+        File dir = new File(temp, "index");
+        DiskIndexWriter.write(TestCorpus.build(corpus), dir);
+        assertEquals(1, MappedIndex.open(dir).files(longest).length);
+
+        Files.writeString(new File(corpus, "long.txt").toPath(), "whale " + longest + "a whale");
+        IOException ex = assertThrows(IOException.class, () -> DiskIndexWriter.write(TestCorpus.build(corpus), new File(temp, "refused")));
+        assertTrue(ex.getMessage().contains("aaaa"), ex.getMessage());
+    }
+
+    @Test
+    void mappedFileReadsAcrossRegions() throws IOException {
+        File dir = new File(temp, "index");
+        DiskIndexWriter.write(memory, dir);
+        File file = new File(dir, MappedIndex.POSITIONS_FILE);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        ByteBuffer expected = ByteBuffer.wrap(bytes);
+        for (int regionSize : new int[] {7, 64, 4096}) {
+            MappedFile mapped = MappedFile.map(file, regionSize);
+            assertEquals(bytes.length, mapped.size());
+            for (int offset = 0; offset + 8 <= bytes.length; offset += 3) {
+                assertEquals(expected.getInt(offset), mapped.getInt(offset));
+                assertEquals(expected.getLong(offset), mapped.getLong(offset));
+            }
+            Random random = new Random(regionSize);
+            for (int i = 0; i < 200; i++) {
+                int from = random.nextInt(bytes.length);
+                int length = random.nextInt(Math.min(bytes.length - from, 3 * regionSize) + 1);
+                byte[] range = new byte[length];
+                mapped.get(from, range, 0, length);
+                assertArrayEquals(Arrays.copyOfRange(bytes, from, from + length), range);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+    Runs incremental updates over a changing corpus and compares the
+    segmented index, before and after merging, with a fresh build,
+    including the numbering of the files.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IncrementalIndexerTest {
+
+    @TempDir
+    File temp;
+
+    // never merges on its own, so tombstones stay in their segments
+    private static final MergePolicy NO_MERGES = new MergePolicy(1000, 2, 1.0);
+
+    @Test
+    void updatesMatchAFreshBuild() throws Exception {
+        File corpus = new File(temp, "corpus");
+        File dir = new File(temp, "index");
+        corpus.mkdirs();
+        Random random = new Random(5);
+        for (int i = 0; i < 6; i++) {
+            TestCorpus.writeFile(new File(corpus, "file" + i + ".txt"), 300 + random.nextInt(1500), random);
+        }
+
+        try (IncrementalIndexer indexer = IncrementalIndexer.open(dir, NO_MERGES)) {
+            IncrementalIndexer.Result result = indexer.update(corpus, 2);
+            assertEquals(6, result.added);
+        }
+        check(corpus, dir);
+
+        // add, change and delete files over several updates
+        for (int round = 0; round < 3; round++) {
+            TestCorpus.writeFile(new File(corpus, "new" + round + ".txt"), 100 + random.nextInt(800), random);
+            TestCorpus.appendTo(new File(corpus, "file" + round + ".txt"), 1 + random.nextInt(50), random);
+            assertTrue(new File(corpus, "file" + (5 - round) + ".txt").delete());
+            try (IncrementalIndexer indexer = IncrementalIndexer.open(dir, NO_MERGES)) {
+                IncrementalIndexer.Result result = indexer.update(corpus, 1);
+                assertEquals(1, result.added);
+                assertEquals(1, result.changed);
+                assertEquals(1, result.deleted);
+            }
+            check(corpus, dir);
+        }
+
+        // an update with nothing to do leaves the index as it is, however the corpus path is spelled
+        for (File same : new File[] {corpus, new File(corpus, "../corpus"), corpus.getAbsoluteFile()}) {
+            try (IncrementalIndexer indexer = IncrementalIndexer.open(dir, NO_MERGES)) {
+                long generation = indexer.generation();
+                IncrementalIndexer.Result result = indexer.update(same, 1);
+                assertEquals(0, result.added + result.changed + result.deleted, same.getPath());
+                assertEquals(generation, indexer.generation());
+            }
+        }
+
+        // merging everything drops the tombstoned postings and the old segments
+        try (IncrementalIndexer indexer = IncrementalIndexer.open(dir, new MergePolicy(1, 8, 0.0))) {
+            assertTrue(indexer.segmentCount() > 1);
+            indexer.mergeInBackground().get();
+            assertEquals(1, indexer.segmentCount());
+        }
+        check(corpus, dir);
+        File[] segments = dir.listFiles(file -> file.getName().startsWith(IncrementalIndexer.SEGMENT_PREFIX));
+        assertEquals(1, segments.length);
+        // the merged segment is numbered in name order like every other index
+        try (MappedIndex merged = MappedIndex.open(segments[0])) {
+            for (int fileNum = 2; fileNum <= merged.fileCount(); fileNum++) {
+                assertTrue(merged.fileName(fileNum - 1).compareTo(merged.fileName(fileNum)) < 0);
+            }
+        }
+    }
+
+    // the segmented index holds what a fresh build of the corpus holds, numbers the files the same way and answers queries the same way
+    private static void check(File corpus, File dir) throws IOException {
+        MemoryIndex fresh = TestCorpus.build(corpus.getCanonicalFile());
+        try (SegmentedIndex segmented = SegmentedIndex.open(dir)) {
+            TestCorpus.assertSameContent(fresh, segmented);
+            for (int fileNum = 1; fileNum <= fresh.fileCount(); fileNum++) {
+                assertEquals(fresh.fileName(fileNum), segmented.fileName(fileNum));
+                assertEquals(fresh.fileLength(fileNum), segmented.fileLength(fileNum));
+            }
+            for (String q : new String[] {"the 1 whale", "captain 0 ahab", "white 3 whale 2 sea", "über 5 naïve", "storm"}) {
+                ProximityQuery query = ProximityQuery.parse(q);
+                List<QueryEngine.Match> expected = new QueryEngine(fresh).execute(query);
+                List<QueryEngine.Match> actual = new QueryEngine(segmented).execute(query);
+                assertEquals(byName(fresh, expected), byName(segmented, actual), q);
+                assertEquals(expected.stream().map(match -> match.fileNum).toList(), actual.stream().map(match -> match.fileNum).toList(), q);
+            }
+        }
+    }
+
+    private static TreeMap<String, List<Integer>> byName(PositionalIndex index, List<QueryEngine.Match> matches) {
+        TreeMap<String, List<Integer>> byName = new TreeMap<>();
+        for (QueryEngine.Match match : matches) {
+            byName.put(index.fileName(match.fileNum), Arrays.stream(match.positions).boxed().toList());
+        }
+        return byName;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+    Checks the bucket layout of LatencyHistogram and its percentiles
+    against a sorted copy of the recorded values.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsAreContiguous() {
+        int last = LatencyHistogram.bucket(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highest(last));
+        assertEquals(0, LatencyHistogram.bucket(0));
+        for (int b = 0; b < last; b++) {
+            long highest = LatencyHistogram.highest(b);
+            assertEquals(b, LatencyHistogram.bucket(highest), "bucket " + b);
+            assertEquals(b + 1, LatencyHistogram.bucket(highest + 1), "bucket " + b);
+        }
+        // every power of two
+        for (int bit = 0; bit < 63; bit++) {
+            long value = 1L << bit;
+            assertTrue(LatencyHistogram.highest(LatencyHistogram.bucket(value)) >= value);
+            assertTrue(LatencyHistogram.highest(LatencyHistogram.bucket(value - 1)) < value);
+        }
+    }
+
+    @Test
+    void bucketsAreWithinOneSixtyFourth() {
+        Random random = new Random(43);
+        for (int i = 0; i < 200_000; i++) {
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            long highest = LatencyHistogram.highest(LatencyHistogram.bucket(value));
+            assertTrue(highest >= value, "value " + value);
+            assertTrue(highest - value <= value / 64, "value " + value + " counted as " + highest);
+            if (value < 128) {
+                assertEquals(value, highest);
+            }
+        }
+    }
+
+    @Test
+    void percentilesMatchSortedValues() {
+        Random random = new Random(47);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[50_000];
+        for (int i = 0; i < values.length; i++) {
+            // latencies spread over several orders of magnitude
+            values[i] = (long) Math.exp(3 + 12 * random.nextDouble() * random.nextDouble());
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        assertEquals(values.length, histogram.count());
+        assertEquals(values[values.length - 1], histogram.max());
+        assertEquals(Arrays.stream(values).sum(), histogram.sum());
+        for (double percent : new double[] {0, 1, 10, 50, 90, 99, 99.9, 99.99, 100}) {
+            long expected = values[(int) Math.max(0, Math.ceil(percent / 100 * values.length) - 1)];
+            long actual = histogram.percentile(percent);
+            assertTrue(actual >= expected && actual - expected <= expected / 64, percent + "%: " + actual + " for " + expected);
+        }
+        for (long limit : new long[] {0, 100, 1000, 50_000}) {
+            long expected = Arrays.stream(values).filter(v -> v <= limit).count();
+            long actual = histogram.countAtOrBelow(limit);
+            // whole buckets only, so values just below limit may be left out
+            assertTrue(actual <= expected, limit + ": " + actual + " for " + expected);
+            long lower = Arrays.stream(values).filter(v -> v <= limit - limit / 64 - 1).count();
+            assertTrue(actual >= lower, limit + ": " + actual + " below " + lower);
+        }
+        assertEquals(0, new LatencyHistogram().percentile(50));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+    Checks the eviction order and the weight bound of LruCache.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LruCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        LruCache<String, Integer> cache = new LruCache<>(3, value -> 1);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        // reading a makes b the least recently used entry
+        assertEquals(1, cache.get("a"));
+        cache.put("d", 4);
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertNotNull(cache.get("d"));
+        assertEquals(1, cache.evictions());
+
+        // replacing a value also counts as a use
+        cache.put("a", 5);
+        cache.put("e", 6);
+        assertNull(cache.get("c"));
+        assertEquals(5, cache.get("a"));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void staysWithinItsWeight() {
+        Random random = new Random(19);
+        long maxWeight = 1000;
+        LruCache<Integer, Integer> cache = new LruCache<>(maxWeight, value -> value);
+        Map<Integer, Integer> latest = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            int key = random.nextInt(200);
+            int weight = 1 + random.nextInt(random.nextInt(10) == 0 ? 1500 : 150);
+            cache.put(key, weight);
+            latest.put(key, weight);
+            assertTrue(cache.weight() <= maxWeight, "weight " + cache.weight());
+            if (random.nextBoolean()) {
+                cache.get(random.nextInt(200));
+            }
+        }
+        // the weight is the sum of the values still cached, each the latest one put
+        long sum = 0;
+        int present = 0;
+        for (Map.Entry<Integer, Integer> entry : latest.entrySet()) {
+            Integer value = cache.get(entry.getKey());
+            if (value != null) {
+                assertEquals(entry.getValue(), value);
+                sum += value;
+                present++;
+            }
+        }
+        assertEquals(sum, cache.weight());
+        assertEquals(present, cache.size());
+    }
+
+    @Test
+    void skipsEntriesHeavierThanTheBudget() {
+        LruCache<String, Integer> cache = new LruCache<>(10, value -> value);
+        cache.put("small", 4);
+        cache.put("huge", 11);
+        assertNull(cache.get("huge"));
+        assertEquals(4, cache.get("small"));
+        assertEquals(4, cache.weight());
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+
+        // a replacement too heavy to cache must not leave the old value behind
+        cache.put("small", 11);
+        assertNull(cache.get("small"));
+        assertEquals(0, cache.weight());
+        assertEquals(0, cache.size());
+    }
+}
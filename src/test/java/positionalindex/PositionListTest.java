@@ -0,0 +1,57 @@
+/*
+    Round trips of the delta and variable-byte encoding of PositionList.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PositionListTest {
+
+    @Test
+    void encodesAndDecodesPositions() {
+        Random random = new Random(3);
+        for (int round = 0; round < 500; round++) {
+            // gaps of every byte length up to the five bytes of a full int
+            int maxGap = 1 << random.nextInt(31);
+            IntList expected = new IntList();
+            PositionList list = new PositionList();
+            long position = random.nextInt(maxGap);
+            for (int i = random.nextInt(200); i > 0 && position <= Integer.MAX_VALUE; i--) {
+                list.add((int) position);
+                expected.add((int) position);
+                position += 1 + random.nextInt(maxGap);
+            }
+            assertEquals(expected.size(), list.size());
+            assertArrayEquals(expected.toArray(), list.toArray());
+
+            int[] decoded = new int[list.size()];
+            assertEquals(list.size(), list.decodeInto(decoded));
+            assertArrayEquals(expected.toArray(), decoded);
+
+            PositionList.Cursor cursor = list.cursor();
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i), cursor.next());
+            }
+            assertFalse(cursor.hasNext());
+
+            // as stored on disk and read back by MappedIndex
+            PositionList copy = new PositionList(list.bytes(), list.byteLength(), list.size());
+            assertArrayEquals(expected.toArray(), copy.toArray());
+        }
+    }
+
+    @Test
+    void storesLargestPosition() {
+        PositionList list = new PositionList();
+        list.add(0);
+        list.add(Integer.MAX_VALUE);
+        assertArrayEquals(new int[] {0, Integer.MAX_VALUE}, list.toArray());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+    Checks the scalar and vector intersection kernels, and the dispatch
+    between them, against brute-force references, including windows near
+    Integer.MAX_VALUE and positions near the top of the int range.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ProximityIntersectorTest {
+
+    private static final int[] WINDOWS = {0, 1, 2, 5, 64, 1000};
+
+    // windows around the vector kernel's limit and near Integer.MAX_VALUE, where window + 1 and p +/- window overflow an int
+    private static final int[] LARGE_WINDOWS = {
+        VectorIntersector.MAX_WINDOW - 1, VectorIntersector.MAX_WINDOW, VectorIntersector.MAX_WINDOW + 1,
+        Integer.MAX_VALUE - 5, Integer.MAX_VALUE - 1, Integer.MAX_VALUE
+    };
+
+    // first positions of the generated lists, the last one near the top of the int range
+    private static final int[] BASES = {0, 1 << 20, Integer.MAX_VALUE - 100_000};
+
+    @Test
+    void scalarKernelMatchesReference() {
+        check(Kernel.SCALAR, WINDOWS);
+        check(Kernel.SCALAR, LARGE_WINDOWS);
+    }
+
+    @Test
+    void vectorKernelMatchesReference() {
+        assumeTrue(ProximityIntersector.VECTORIZED, "jdk.incubator.vector is not available");
+        check(Kernel.VECTOR, WINDOWS);
+        check(Kernel.VECTOR, LARGE_WINDOWS);
+    }
+
+    @Test
+    void dispatchMatchesReference() {
+        check(Kernel.DISPATCH, WINDOWS);
+        check(Kernel.DISPATCH, LARGE_WINDOWS);
+    }
+
+    @Test
+    void sortedIntersectionMatchesReference() {
+        Random random = new Random(42);
+        for (int round = 0; round < 2000; round++) {
+            int[] a = sortedDistinct(random, random.nextInt(80), 0, 1 + random.nextInt(5));
+            int[] b = sortedDistinct(random, random.nextInt(200), 0, 1 + random.nextInt(5));
+            int[] expected = Arrays.stream(a).filter(x -> Arrays.binarySearch(b, x) >= 0).toArray();
+
+            IntList out = new IntList();
+            QueryEngine.intersectSortedScalar(a, a.length, b, b.length, out);
+            assertArrayEquals(expected, out.toArray(), "scalar");
+
+            out.clear();
+            QueryEngine.intersectSorted(a, a.length, b, b.length, out);
+            assertArrayEquals(expected, out.toArray(), "dispatch");
+
+            if (ProximityIntersector.VECTORIZED) {
+                out.clear();
+                VectorIntersector.intersectSorted(a, a.length, b, b.length, out);
+                assertArrayEquals(expected, out.toArray(), "vector");
+            }
+        }
+    }
+
+    @Test
+    void largeWindowMatchesEveryOtherPosition() {
+        int[] p1 = {0, 10, Integer.MAX_VALUE - 1};
+        int[] p2 = {5, Integer.MAX_VALUE};
+        for (int window : new int[] {Integer.MAX_VALUE - 5, Integer.MAX_VALUE}) {
+            IntList out = new IntList();
+            ProximityIntersector.intersectScalar(p1, p1.length, p2, p2.length, window, out);
+            assertArrayEquals(p1, out.toArray(), "window " + window);
+        }
+    }
+
+    private enum Kernel { SCALAR, VECTOR, DISPATCH }
+
+    private static void check(Kernel kernel, int[] windows) {
+        Random random = new Random(7);
+        for (int base : BASES) {
+            for (int window : windows) {
+                for (int round = 0; round < 150; round++) {
+                    int[] p1 = sortedDistinct(random, random.nextInt(70), base, 1 + random.nextInt(8));
+                    int[] p2 = sortedDistinct(random, random.nextInt(70), base, 1 + random.nextInt(8));
+                    IntList out = new IntList();
+                    switch (kernel) {
+                        case SCALAR:
+                            ProximityIntersector.intersectScalar(p1, p1.length, p2, p2.length, window, out);
+                            break;
+                        case VECTOR:
+                            VectorIntersector.intersect(p1, p1.length, p2, p2.length, window, out);
+                            break;
+                        default:
+                            ProximityIntersector.intersect(p1, p1.length, p2, p2.length, window, out);
+                    }
+                    assertArrayEquals(reference(p1, p2, window), out.toArray(), kernel + " base " + base + " window " + window);
+                }
+            }
+        }
+    }
+
+    // positions of p1 with a different position of p2 at most window + 1 away
+    private static int[] reference(int[] p1, int[] p2, int window) {
+        IntList out = new IntList();
+        for (int p : p1) {
+            for (int q : p2) {
+                if (q != p && Math.abs((long) p - q) <= window + 1L) {
+                    out.add(p);
+                    break;
+                }
+            }
+        }
+        return out.toArray();
+    }
+
+    // n increasing values from base with random gaps below maxGap, capped at Integer.MAX_VALUE
+    private static int[] sortedDistinct(Random random, int n, int base, int maxGap) {
+        IntList values = new IntList();
+        long value = base + random.nextInt(maxGap);
+        for (int i = 0; i < n && value <= Integer.MAX_VALUE; i++) {
+            values.add((int) value);
+            value += 1 + random.nextInt(maxGap);
+        }
+        return values.toArray();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+    Checks that QueryCache entries belong to the index generation they
+    were computed on.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class QueryCacheTest {
+
+    private static final ProximityQuery QUERY = ProximityQuery.parse("united 1 states");
+    private static final List<QueryEngine.Match> MATCHES = List.of(new QueryEngine.Match(3, new int[] {7, 90}));
+
+    @Test
+    void newGenerationInvalidatesEntries() {
+        QueryCache cache = new QueryCache(1 << 20);
+        cache.checkGeneration(1);
+        cache.putResult(QUERY, 1, MATCHES);
+        cache.putFiles("states united", 1, new int[] {3, 4});
+        assertSame(MATCHES, cache.getResult(QUERY, 1));
+        assertArrayEquals(new int[] {3, 4}, cache.getFiles("states united", 1));
+
+        cache.checkGeneration(2);
+        assertNull(cache.getResult(QUERY, 2));
+        assertNull(cache.getFiles("states united", 2));
+        assertEquals(0, cache.results().size());
+        assertEquals(0, cache.files().size());
+    }
+
+    @Test
+    void olderGenerationNeitherReadsNorStores() {
+        QueryCache cache = new QueryCache(1 << 20);
+        cache.checkGeneration(2);
+        cache.putResult(QUERY, 2, MATCHES);
+
+        // a query still running on generation 1 must not see or replace generation 2 entries
+        cache.checkGeneration(1);
+        assertNull(cache.getResult(QUERY, 1));
+        cache.putResult(QUERY, 1, List.of());
+        cache.putFiles("states united", 1, new int[] {5});
+        assertSame(MATCHES, cache.getResult(QUERY, 2));
+        assertNull(cache.getFiles("states united", 2));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+    Checks chain evaluation against a brute-force search over the words of
+    every file, with and without a QueryCache, including chains that repeat
+    a term and chains with a term missing from the index.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class QueryEngineTest {
+
+    @TempDir
+    File temp;
+
+    @Test
+    void chainsMatchBruteForce() throws IOException {
+        Random random = new Random(13);
+        for (int i = 0; i < 8; i++) {
+            TestCorpus.writeFile(new File(temp, "file" + i + ".txt"), 100 + random.nextInt(600), random);
+        }
+        MemoryIndex index = TestCorpus.build(temp);
+        String[][] words = new String[index.fileCount() + 1][];
+        for (int fileNum = 1; fileNum <= index.fileCount(); fileNum++) {
+            words[fileNum] = words(new File(index.fileName(fileNum)));
+        }
+
+        List<String> queries = new ArrayList<>(List.of(
+                "the 0 the", "the 1 the 0 the", "whale", "captain 0 ahab", "whale 2 nosuchword", "nosuchword",
+                "sea 0 sea 3 whale", "ber 2 na", "the 100 zebra 0 x"));
+        for (int q = 0; q < 300; q++) {
+            StringBuilder sb = new StringBuilder(word(random));
+            for (int t = random.nextInt(4); t > 0; t--) {
+                sb.append(' ').append(random.nextInt(6)).append(' ').append(word(random));
+            }
+            queries.add(sb.toString());
+        }
+
+        QueryEngine plain = new QueryEngine(index);
+        QueryEngine cached = new QueryEngine(index, new QueryCache(1 << 20));
+        for (int pass = 0; pass < 2; pass++) {
+            for (String q : queries) {
+                ProximityQuery query = ProximityQuery.parse(q);
+                List<QueryEngine.Match> expected = bruteForce(query, words);
+                assertSame(expected, plain.execute(query), q);
+                // the second pass is answered from the cache
+                assertSame(expected, cached.execute(query), q);
+            }
+        }
+    }
+
+    private static String word(Random random) {
+        return random.nextInt(20) == 0 ? "nosuchword" : TestCorpus.WORDS[random.nextInt(TestCorpus.WORDS.length)].replaceAll("[^a-z]", "");
+    }
+
+    private static void assertSame(List<QueryEngine.Match> expected, List<QueryEngine.Match> actual, String query) {
+        assertEquals(expected.size(), actual.size(), query);
+        for (int m = 0; m < expected.size(); m++) {
+            assertEquals(expected.get(m).fileNum, actual.get(m).fileNum, query);
+            assertArrayEquals(expected.get(m).positions, actual.get(m).positions, query);
+        }
+    }
+
+    // every start of the chain in every file, found by trying all continuations
+    private static List<QueryEngine.Match> bruteForce(ProximityQuery query, String[][] words) {
+        List<QueryEngine.Match> matches = new ArrayList<>();
+        for (int fileNum = 1; fileNum < words.length; fileNum++) {
+            IntList starts = new IntList();
+            for (int p = 1; p < words[fileNum].length; p++) {
+                if (chainFrom(query, 0, p, words[fileNum])) {
+                    starts.add(p);
+                }
+            }
+            if (!starts.isEmpty()) {
+                matches.add(new QueryEngine.Match(fileNum, starts.toArray()));
+            }
+        }
+        return matches;
+    }
+
+    // whether term i of the chain is at position p and the rest of the chain follows from there
+    private static boolean chainFrom(ProximityQuery query, int i, int p, String[] words) {
+        if (!words[p].equals(query.term(i))) {
+            return false;
+        }
+        if (i == query.size() - 1) {
+            return true;
+        }
+        int reach = query.gap(i) + 1;
+        for (int q = Math.max(1, p - reach); q <= Math.min(words.length - 1, p + reach); q++) {
+            if (q != p && chainFrom(query, i + 1, q, words)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the words of a file by position, from 1
+    private static String[] words(File file) throws IOException {
+        List<String> words = new ArrayList<>();
+        words.add(null);
+        Matcher matcher = Pattern.compile("[a-zA-Z]+").matcher(Files.readString(file.toPath(), StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            words.add(matcher.group().toLowerCase());
+        }
+        return words.toArray(new String[0]);
+    }
+}
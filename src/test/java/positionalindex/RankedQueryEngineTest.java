@@ -0,0 +1,81 @@
+/*
+    Checks that the top k of RankedQueryEngine, which stops early once no
+    remaining candidate can reach the heap, are the first k hits of an
+    exhaustive ranking of every matching file, and that the proximity boost
+    is measured on the positions of a chain match.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RankedQueryEngineTest {
+
+    @TempDir
+    File temp;
+
+    @Test
+    void earlyTerminationKeepsTheTopK() throws IOException {
+        Random random = new Random(59);
+        for (int i = 0; i < 60; i++) {
+            TestCorpus.writeFile(new File(temp, "file" + i + ".txt"), 50 + random.nextInt(random.nextBoolean() ? 300 : 3000), random);
+        }
+        MemoryIndex index = TestCorpus.build(temp);
+        RankedQueryEngine engine = new RankedQueryEngine(index, 10);
+        QueryEngine unranked = new QueryEngine(index);
+
+        int pruned = 0;
+        for (String q : new String[] {"the", "whale", "the 0 the", "white 2 whale", "captain 5 ahab", "sea 10 ship 10 storm",
+                "x 3 zebra", "of 1 the", "a 0 a 0 a", "ber 3 na", "nosuchword", "whale 1 nosuchword"}) {
+            ProximityQuery query = ProximityQuery.parse(q);
+            List<RankedQueryEngine.Hit> all = engine.top(query, index.fileCount());
+            assertEquals(0, engine.skipped(), q);
+            // every match is ranked, with its chain positions
+            List<QueryEngine.Match> matches = unranked.execute(query);
+            assertEquals(matches.size(), all.size(), q);
+            // the heap is sized by the candidates, not by k
+            assertEquals(all.size(), engine.top(query, Integer.MAX_VALUE).size(), q);
+            for (int h = 1; h < all.size(); h++) {
+                assertTrue(all.get(h - 1).score > all.get(h).score
+                        || all.get(h - 1).score == all.get(h).score && all.get(h - 1).fileNum < all.get(h).fileNum, q);
+            }
+            for (int k : new int[] {1, 2, 3, 5, 10, 30}) {
+                List<RankedQueryEngine.Hit> top = engine.top(query, k);
+                assertEquals(Math.min(k, all.size()), top.size(), q + " k " + k);
+                for (int h = 0; h < top.size(); h++) {
+                    assertEquals(all.get(h).fileNum, top.get(h).fileNum, q + " k " + k);
+                    assertEquals(all.get(h).score, top.get(h).score, q + " k " + k);
+                    assertArrayEquals(all.get(h).positions, top.get(h).positions, q + " k " + k);
+                }
+                pruned += engine.skipped();
+            }
+        }
+        // the bound did cut the search short somewhere
+        assertTrue(pruned > 0);
+    }
+
+    @Test
+    void spanIsMeasuredOnTheChain() throws IOException {
+        // the same words and length; near.txt has the tighter chain match (alpha 1, beta 5, gamma 7),
+        // far.txt a tighter window (gamma 0, alpha 1, beta 5) that is no chain, its chain ends at gamma 9
+        Files.writeString(new File(temp, "near.txt").toPath(), "filler alpha filler filler filler beta filler gamma filler filler filler filler filler filler gamma");
+        Files.writeString(new File(temp, "far.txt").toPath(), "gamma alpha filler filler filler beta filler filler filler gamma filler filler filler filler filler");
+        MemoryIndex index = TestCorpus.build(temp);
+        RankedQueryEngine engine = new RankedQueryEngine(index, 10);
+        List<RankedQueryEngine.Hit> hits = engine.top(ProximityQuery.parse("alpha 3 beta 3 gamma"), 2);
+        assertEquals(2, hits.size());
+        assertTrue(index.fileName(hits.get(0).fileNum).endsWith("near.txt"));
+        assertTrue(hits.get(0).score > hits.get(1).score);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+    Compares scatter-gather search over in-process and socket shards with
+    a QueryEngine over a single index of the whole corpus, and checks that
+    a failing remote shard is reported as an IOException.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ShardedSearcherTest {
+
+    private static final String[] QUERIES = {
+        "the", "the 0 the", "whale 1 sea", "captain 0 ahab 2 white", "x 5 zebra", "storm 3 night 3 deck", "nosuchword", "ber 0 na"
+    };
+
+    @TempDir
+    File temp;
+
+    private String[] fileNames;
+    private MemoryIndex single;
+
+    @BeforeEach
+    void buildCorpus() throws IOException {
+        Random random = new Random(53);
+        for (int i = 0; i < 11; i++) {
+            TestCorpus.writeFile(new File(temp, "file" + i + ".txt"), 100 + random.nextInt(1200), random);
+        }
+        fileNames = Problem2.sortedFileNames(temp.getPath());
+        single = TestCorpus.build(temp);
+    }
+
+    @Test
+    void localShardsMatchSingleIndex() throws IOException {
+        for (int shardCount : new int[] {1, 2, 3, 11}) {
+            try (ShardedSearcher searcher = new ShardedSearcher(ShardedSearcher.buildLocalShards(fileNames, shardCount))) {
+                assertEquals(single.fileCount(), searcher.fileCount());
+                check(searcher, shardCount + " local shards");
+            }
+        }
+    }
+
+    @Test
+    void remoteShardsMatchSingleIndex() throws IOException {
+        int shardCount = 3;
+        List<ShardServer> servers = new ArrayList<>();
+        List<RemoteShard> remotes = new ArrayList<>();
+        try {
+            for (int s = 0; s < shardCount; s++) {
+                int[] range = ShardedSearcher.range(fileNames.length, s, shardCount);
+                ShardServer server = new ShardServer(ShardedSearcher.buildShard(fileNames, range[0], range[1]), 0, 2);
+                servers.add(server);
+                startDaemon(server);
+                remotes.add(new RemoteShard("127.0.0.1", server.port()));
+            }
+            try (ShardedSearcher searcher = new ShardedSearcher(remotes)) {
+                assertEquals(single.fileCount(), searcher.fileCount());
+                check(searcher, "remote shards");
+                // again over the pooled connections
+                check(searcher, "remote shards");
+            }
+        }
+        finally {
+            for (ShardServer server : servers) {
+                server.close();
+            }
+        }
+    }
+
+    @Test
+    void failingRemoteShardThrowsIOException() throws IOException {
+        // fails one query, as a broken index read would
+        final String broken = ProximityQuery.parse("night 2 deck").toString();
+        LocalShard failing = new LocalShard(single, 0) {
+            @Override
+            public List<QueryEngine.Match> search(ProximityQuery query) {
+                if (query.toString().equals(broken)) {
+                    throw new IllegalStateException("broken shard");
+                }
+                return super.search(query);
+            }
+        };
+        ShardServer server = new ShardServer(failing, 0, 1);
+        startDaemon(server);
+        try (ShardedSearcher searcher = new ShardedSearcher(List.of(new RemoteShard("127.0.0.1", server.port())))) {
+            for (int round = 0; round < 3; round++) {
+                IOException ex = assertThrows(IOException.class, () -> searcher.execute(ProximityQuery.parse(broken)));
+                assertTrue(ex.getMessage().contains("broken shard"), ex.getMessage());
+                // the error leaves the connection usable
+                check(searcher, "after an error");
+            }
+        }
+        finally {
+            server.close();
+        }
+    }
+
+    private void check(ShardedSearcher searcher, String message) throws IOException {
+        QueryEngine engine = new QueryEngine(single);
+        for (String q : QUERIES) {
+            ProximityQuery query = ProximityQuery.parse(q);
+            List<QueryEngine.Match> expected = engine.execute(query);
+            List<QueryEngine.Match> actual = searcher.execute(query);
+            assertEquals(expected.size(), actual.size(), message + ": " + q);
+            for (int m = 0; m < expected.size(); m++) {
+                assertEquals(expected.get(m).fileNum, actual.get(m).fileNum, message + ": " + q);
+                assertArrayEquals(expected.get(m).positions, actual.get(m).positions, message + ": " + q);
+            }
+        }
+    }
+
+    static void startDaemon(ShardServer server) {
+        Thread thread = new Thread(() -> {
+            try {
+                server.serve();
+            }
+            catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
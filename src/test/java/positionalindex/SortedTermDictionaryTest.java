@@ -0,0 +1,115 @@
+/*
+    Checks the front-coded SortedTermDictionary against a plain sorted
+    array: ids and terms, prefix ranges that start and end at block
+    boundaries, and wildcard matching.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+class SortedTermDictionaryTest {
+
+    private static String[] randomTerms(long seed, int count) {
+        Random random = new Random(seed);
+        TreeSet<String> terms = new TreeSet<>();
+        while (terms.size() < count) {
+            // a small alphabet gives long shared prefixes
+            char[] letters = new char[1 + random.nextInt(9)];
+            for (int i = 0; i < letters.length; i++) {
+                letters[i] = (char) ('a' + random.nextInt(4));
+            }
+            terms.add(new String(letters));
+        }
+        return terms.toArray(new String[0]);
+    }
+
+    private static SortedTermDictionary build(String[] terms) {
+        SortedTermDictionary.Builder builder = new SortedTermDictionary.Builder();
+        for (String term : terms) {
+            byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+            builder.add(bytes, 0, bytes.length);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void idsAndTermsRoundTrip() {
+        for (int count : new int[] {0, 1, SortedTermDictionary.BLOCK_SIZE - 1, SortedTermDictionary.BLOCK_SIZE,
+                SortedTermDictionary.BLOCK_SIZE + 1, 5 * SortedTermDictionary.BLOCK_SIZE, 3001}) {
+            String[] terms = randomTerms(count, count);
+            SortedTermDictionary dictionary = build(terms);
+            assertEquals(count, dictionary.size());
+            for (int id = 0; id < count; id++) {
+                assertEquals(terms[id], dictionary.term(id));
+                assertEquals(id, dictionary.id(terms[id]));
+            }
+            for (String missing : new String[] {"", "e", "aaaaaaaaaaa", "ab" + "z", "dddddddddd"}) {
+                if (Arrays.binarySearch(terms, missing) < 0) {
+                    assertEquals(-1, dictionary.id(missing), missing);
+                }
+            }
+        }
+    }
+
+    @Test
+    void prefixRangesAtBlockBoundaries() {
+        String[] terms = randomTerms(37, 2000);
+        SortedTermDictionary dictionary = build(terms);
+        TreeSet<String> prefixes = new TreeSet<>();
+        prefixes.add("");
+        // the terms around every block start and every prefix of them
+        for (int block = 0; block * SortedTermDictionary.BLOCK_SIZE < terms.length; block++) {
+            for (int id = block * SortedTermDictionary.BLOCK_SIZE - 1; id <= block * SortedTermDictionary.BLOCK_SIZE + 1; id++) {
+                if (id >= 0 && id < terms.length) {
+                    for (int length = 1; length <= terms[id].length(); length++) {
+                        prefixes.add(terms[id].substring(0, length));
+                    }
+                }
+            }
+        }
+        prefixes.add("e");
+        prefixes.add("dddddddddddd");
+        for (String prefix : prefixes) {
+            assertArrayEquals(expectedRange(terms, prefix), dictionary.prefixRange(prefix), prefix);
+        }
+    }
+
+    @Test
+    void matchesWildcards() {
+        String[] terms = randomTerms(41, 700);
+        SortedTermDictionary dictionary = build(terms);
+        for (String pattern : new String[] {"a*", "ab?c", "*", "?", "??", "*d", "a*b*c", "cab*", "b?d*", "dddd", "e*", "*a*a*a*"}) {
+            Pattern regex = Pattern.compile(pattern.replace("?", ".").replace("*", ".*"));
+            IntList expected = new IntList();
+            for (int id = 0; id < terms.length; id++) {
+                if (regex.matcher(terms[id]).matches()) {
+                    expected.add(id);
+                }
+            }
+            assertArrayEquals(expected.toArray(), dictionary.matching(pattern).toArray(), pattern);
+        }
+    }
+
+    // {first id >= prefix, first id after it that does not start with prefix}
+    private static int[] expectedRange(String[] terms, String prefix) {
+        int from = 0;
+        while (from < terms.length && terms[from].compareTo(prefix) < 0) {
+            from++;
+        }
+        int to = from;
+        while (to < terms.length && terms[to].startsWith(prefix)) {
+            to++;
+        }
+        return new int[] {from, to};
+    }
+}
@@ -0,0 +1,126 @@
+/*
+    Adds random terms to the open-addressing TermDictionary past several
+    table and pool resizes, including terms with equal hashes, and checks
+    the ids, the stored bytes and the sorted order it freezes into.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TermDictionaryTest {
+
+    @Test
+    void idsRoundTripThroughGrowth() {
+        Random random = new Random(23);
+        TermDictionary dictionary = new TermDictionary();
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> terms = new ArrayList<>();
+        // far past the initial 4096 slots, 2048 ids and 16 KB pool
+        for (int i = 0; i < 60_000; i++) {
+            // mostly new terms, some repeated, a few long ones
+            String term = i % 5 == 0 && !terms.isEmpty() ? terms.get(random.nextInt(terms.size())) : randomTerm(random, i % 997 == 0 ? 300 : 12);
+            byte[] bytes = ("xx" + term + "yy").getBytes(StandardCharsets.US_ASCII);
+            int id = dictionary.add(bytes, 2, term.length());
+            Integer expected = ids.get(term);
+            if (expected == null) {
+                assertEquals(ids.size(), id, term);
+                ids.put(term, id);
+                terms.add(term);
+            }
+            else {
+                assertEquals(expected, id, term);
+            }
+        }
+        assertEquals(terms.size(), dictionary.size());
+        for (int id = 0; id < terms.size(); id++) {
+            String term = terms.get(id);
+            byte[] bytes = term.getBytes(StandardCharsets.US_ASCII);
+            assertEquals(term, dictionary.term(id));
+            assertEquals(id, dictionary.find(bytes, 0, bytes.length));
+            assertEquals(term.length(), dictionary.length(id));
+            assertArrayEquals(bytes, Arrays.copyOfRange(dictionary.pool(), dictionary.offset(id), dictionary.offset(id) + dictionary.length(id)));
+        }
+        byte[] missing = "notaddedq".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(-1, dictionary.find(missing, 0, missing.length));
+        assertEquals(-1, dictionary.find(missing, 0, 0));
+    }
+
+    @Test
+    void termsWithEqualHashesKeepTheirIds() {
+        // search for two different terms whose full 32-bit hashes are equal
+        Random random = new Random(29);
+        Map<Integer, String> seen = new HashMap<>();
+        String first = null, second = null;
+        while (first == null) {
+            String term = randomTerm(random, 8);
+            byte[] bytes = term.getBytes(StandardCharsets.US_ASCII);
+            String other = seen.put(TermDictionary.hash(bytes, 0, bytes.length), term);
+            if (other != null && !other.equals(term)) {
+                first = other;
+                second = term;
+            }
+        }
+        assertNotEquals(first, second);
+
+        TermDictionary dictionary = new TermDictionary();
+        byte[] a = first.getBytes(StandardCharsets.US_ASCII);
+        byte[] b = second.getBytes(StandardCharsets.US_ASCII);
+        assertEquals(-1, dictionary.find(b, 0, b.length));
+        assertEquals(0, dictionary.add(a, a.length));
+        assertEquals(-1, dictionary.find(b, 0, b.length));
+        assertEquals(1, dictionary.add(b, b.length));
+        // and still after a rehash
+        for (int i = 0; i < 5000; i++) {
+            byte[] filler = ("filler" + i).getBytes(StandardCharsets.US_ASCII);
+            dictionary.add(filler, filler.length);
+        }
+        assertEquals(0, dictionary.add(a, a.length));
+        assertEquals(1, dictionary.find(b, 0, b.length));
+        assertEquals(first, dictionary.term(0));
+        assertEquals(second, dictionary.term(1));
+    }
+
+    @Test
+    void freezesInSortedOrder() {
+        Random random = new Random(31);
+        TermDictionary dictionary = new TermDictionary();
+        for (int i = 0; i < 3000; i++) {
+            byte[] bytes = randomTerm(random, 6).getBytes(StandardCharsets.US_ASCII);
+            dictionary.add(bytes, bytes.length);
+        }
+        int[] sortedIds = dictionary.sortedIds();
+        String[] expected = new String[dictionary.size()];
+        for (int id = 0; id < expected.length; id++) {
+            expected[id] = dictionary.term(id);
+        }
+        Arrays.sort(expected);
+        SortedTermDictionary sorted = dictionary.freeze(sortedIds);
+        assertEquals(expected.length, sorted.size());
+        for (int rank = 0; rank < expected.length; rank++) {
+            assertEquals(expected[rank], dictionary.term(sortedIds[rank]));
+            assertEquals(expected[rank], sorted.term(rank));
+        }
+    }
+
+    // lowercase letters, 1 to maxLength of them
+    static String randomTerm(Random random, int maxLength) {
+        char[] letters = new char[1 + random.nextInt(maxLength)];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(letters);
+    }
+}
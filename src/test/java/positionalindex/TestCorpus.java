@@ -0,0 +1,89 @@
+/*
+    Small random text corpora and index comparisons shared by the tests.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+class TestCorpus {
+
+    static final String[] WORDS = {
+        "the", "whale", "sea", "ship", "captain", "white", "of", "and", "a", "to",
+        "ahab", "ishmael", "harpoon", "deck", "storm", "night", "über", "naïve", "x", "zebra"
+    };
+
+    // writes a text file of the given number of random words
+    static void writeFile(File file, int words, Random random) throws IOException {
+        Files.writeString(file.toPath(), text(words, random), StandardCharsets.UTF_8);
+    }
+
+    // appends random words to a file, changing its length
+    static void appendTo(File file, int words, Random random) throws IOException {
+        Files.writeString(file.toPath(), " " + text(words, random), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    private static String text(int words, Random random) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+            sb.append(random.nextInt(12) == 0 ? ".\n" : " ");
+        }
+        return sb.toString();
+    }
+
+    // builds the in-memory index of the .txt files below dir, numbered in name order
+    static MemoryIndex build(File dir) throws IOException {
+        String[] fileNames = Problem2.sortedFileNames(dir.getPath());
+        IndexBuilder builder = new IndexBuilder();
+        for (int i = 0; i < fileNames.length; i++) {
+            builder.addFile(fileNames[i], i + 1);
+        }
+        return builder.finish(fileNames);
+    }
+
+    // asserts that actual holds the same files, lengths and positions as expected,
+    // matching files by name so that a numbering difference is reported by name
+    static void assertSameContent(MemoryIndex expected, PositionalIndex actual) {
+        assertEquals(expected.fileCount(), actual.fileCount(), "file count");
+        Map<String, Integer> actualNumbers = new HashMap<>();
+        for (int t = 0; t < expected.termCount(); t++) {
+            for (int fileNum : actual.files(expected.dictionary().term(t))) {
+                actualNumbers.put(actual.fileName(fileNum), fileNum);
+            }
+        }
+        assertEquals(expected.fileCount(), actualNumbers.size(), "live file count");
+        for (int fileNum = 1; fileNum <= expected.fileCount(); fileNum++) {
+            Integer actualNum = actualNumbers.get(expected.fileName(fileNum));
+            assertNotNull(actualNum, expected.fileName(fileNum));
+            assertEquals(expected.fileLength(fileNum), actual.fileLength(actualNum), expected.fileName(fileNum));
+        }
+        for (int t = 0; t < expected.termCount(); t++) {
+            String term = expected.dictionary().term(t);
+            int[] files = expected.files(term);
+            int[] actualFiles = actual.files(term);
+            assertEquals(files.length, actualFiles.length, term);
+            int[] counts = actual.counts(term);
+            for (int i = 0; i < actualFiles.length; i++) {
+                assertEquals(actual.positions(term, actualFiles[i]).size(), counts[i], term);
+            }
+            for (int fileNum : files) {
+                int actualNum = actualNumbers.get(expected.fileName(fileNum));
+                PositionList positions = actual.positions(term, actualNum);
+                assertNotNull(positions, term + " in " + expected.fileName(fileNum));
+                assertArrayEquals(expected.positions(term, fileNum).toArray(), positions.toArray(), term + " in " + expected.fileName(fileNum));
+            }
+        }
+    }
+}
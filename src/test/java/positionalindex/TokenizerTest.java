@@ -0,0 +1,114 @@
+/*
+    Compares the byte scanning Tokenizer with the [a-zA-Z]+ regex matcher
+    it replaced, on random text with mixed case, punctuation, line breaks,
+    multi-byte UTF-8 characters and stray high bytes.
+*/
+
+package positionalindex;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TokenizerTest {
+
+    @TempDir
+    File temp;
+
+    private static final String[] PIECES = {
+        "Whale", "the", "SEA", "Captain", "a", "x", "über", "naïve", "café", "–", "—", "’",
+        " ", "  ", ", ", ". ", "\n", "\r\n", "\t", "-", "'", "@", "[", "`", "{", "0", "42"
+    };
+
+    @Test
+    void matchesTheRegexTokenizer() throws IOException {
+        Random random = new Random(17);
+        for (int round = 0; round < 40; round++) {
+            File file = new File(temp, "file" + round + ".txt");
+            Files.write(file.toPath(), randomText(random, random.nextInt(4 * Tokenizer.CHUNK_SIZE)));
+            assertEquals(regexTokens(file), tokens(file), file.getName());
+        }
+    }
+
+    @Test
+    void wordAcrossChunkBoundary() throws IOException {
+        // "Boundary" starts 1 to 7 bytes before the end of the first chunk
+        for (int start = Tokenizer.CHUNK_SIZE - 7; start < Tokenizer.CHUNK_SIZE; start++) {
+            StringBuilder text = new StringBuilder();
+            while (text.length() < start) {
+                text.append("ab ");
+            }
+            text.setLength(start - 1);
+            text.append(" Boundary word");
+            File file = new File(temp, "boundary" + start + ".txt");
+            Files.writeString(file.toPath(), text, StandardCharsets.US_ASCII);
+            List<String> tokens = tokens(file);
+            assertEquals(regexTokens(file), tokens);
+            assertEquals(":boundary", tokens.get(tokens.size() - 2).replaceFirst("^\\d+", ""));
+        }
+    }
+
+    @Test
+    void wordAtEndOfFile() throws IOException {
+        File file = new File(temp, "eof.txt");
+        for (String text : new String[] {"last", "one Last", "one\nlast\n", "x", "", "über"}) {
+            Files.writeString(file.toPath(), text, StandardCharsets.UTF_8);
+            assertEquals(regexTokens(file), tokens(file), text);
+        }
+        // a word that exactly fills the first chunk and ends the file
+        Files.writeString(file.toPath(), "Q".repeat(Tokenizer.CHUNK_SIZE), StandardCharsets.US_ASCII);
+        assertEquals(List.of("1:" + "q".repeat(Tokenizer.CHUNK_SIZE)), tokens(file));
+    }
+
+    // "position:word" of every token the Tokenizer finds
+    private static List<String> tokens(File file) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        new Tokenizer().tokenize(file, (word, length, position) ->
+                tokens.add(position + ":" + new String(word, 0, length, StandardCharsets.US_ASCII)));
+        return tokens;
+    }
+
+    // the tokens of the line-by-line regex matcher the Tokenizer replaced
+    private static List<String> regexTokens(File file) throws IOException {
+        Pattern wordPattern = Pattern.compile("[a-zA-Z]+");
+        List<String> tokens = new ArrayList<>();
+        int position = 1;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                Matcher matcher = wordPattern.matcher(line);
+                while (matcher.find()) {
+                    tokens.add(position++ + ":" + matcher.group().toLowerCase());
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static byte[] randomText(Random random, int bytes) {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < bytes) {
+            sb.append(PIECES[random.nextInt(PIECES.length)]);
+        }
+        byte[] text = sb.toString().getBytes(StandardCharsets.UTF_8);
+        // bytes that are not valid UTF-8 separate words too
+        for (int i = 0; i < text.length / 500; i++) {
+            text[random.nextInt(text.length)] = (byte) (0x80 + random.nextInt(0x80));
+        }
+        return text;
+    }
+}